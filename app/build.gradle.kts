@@ -41,6 +41,10 @@ android {
         compose = true
         buildConfig = true
     }
+    testOptions {
+        // android.util.Log & co. are no-ops in local unit tests instead of throwing
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -79,7 +83,8 @@ dependencies {
     // Retrofit for network calls
     implementation(libs.retrofit.core)
     implementation(libs.retrofit.gson)
-    implementation(libs.okhttp.logging)
+    // OkHttp 4 directly (Retrofit alone brings 3.x); logging is BoundedLoggingInterceptor
+    implementation(libs.okhttp.core)
     
     // Glide for image loading
     implementation(libs.glide.core)
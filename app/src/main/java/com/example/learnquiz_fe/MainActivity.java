@@ -9,6 +9,7 @@ import androidx.fragment.app.Fragment;
 
 import com.example.learnquiz_fe.data.model.auth.AuthResponse;
 import com.example.learnquiz_fe.data.network.RetrofitClient;
+import com.example.learnquiz_fe.data.repository.SubmissionOutbox;
 import com.example.learnquiz_fe.ui.activities.HomeActivity;
 import com.example.learnquiz_fe.ui.fragments.myquizzes.MyQuizzesFragment;
 import com.example.learnquiz_fe.ui.fragments.payment.UpgradePremiumFragment;
@@ -29,6 +30,8 @@ public class MainActivity extends AppCompatActivity {
 
         BottomNavigationView bottomNavigation = findViewById(R.id.bottom_navigation);
         retrofitClient = RetrofitClient.getInstance(this);
+        // Gửi lại các bài làm còn chờ trong outbox (offline hoặc hết phiên lần trước)
+        SubmissionOutbox.getInstance(this).drainNow();
 
         bottomNavigation.setOnItemSelectedListener(item -> {
             int id = item.getItemId();
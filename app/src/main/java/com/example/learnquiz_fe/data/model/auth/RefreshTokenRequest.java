@@ -0,0 +1,6 @@
+package com.example.learnquiz_fe.data.model.auth;
+
+public class RefreshTokenRequest {
+    public String refreshToken;
+    public RefreshTokenRequest(String refreshToken) { this.refreshToken = refreshToken; }
+}
@@ -3,6 +3,14 @@ package com.example.learnquiz_fe.data.model.camera;
 import android.graphics.Bitmap;
 import android.net.Uri;
 
+import com.example.learnquiz_fe.utils.BitmapPool;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
 /**
  * Represents a captured image with its metadata and selected region
  * Used for managing photo session in memory
@@ -15,9 +23,22 @@ public class CapturedImage {
     private String id;
     
     /**
-     * Base64 encoded image data (for API upload)
+     * Processed upload payload (JPEG or WebP) in the session cache directory
+     * Only the file handle is kept in memory; bytes are read (and Base64-encoded
+     * for the JSON path) at send time
+     */
+    private File payloadFile;
+    
+    /**
+     * Size of payloadFile in bytes
      */
-    private String base64Data;
+    private long payloadSize;
+    
+    /**
+     * Complete data URI ("data:<mime>;base64,...") prepared in the background,
+     * so the upload only copies bytes. Null until prepared; dropped when the payload changes.
+     */
+    private volatile File encodedFile;
     
     /**
      * Selected region within the image
@@ -54,9 +75,33 @@ public class CapturedImage {
      */
     private boolean fromCamera;
     
+    /**
+     * MIME type of the upload payload (image/jpeg, image/webp or image/png for processed
+     * photos, application/pdf for documents streamed from their source URI)
+     */
+    private volatile String mimeType = "image/jpeg";
+    
+    /**
+     * Quality the payload was encoded with (0 if not encoded here)
+     */
+    private int encodeQuality;
+    
+    /**
+     * Hash of source bytes + region + encode settings (null if unknown)
+     * Equal keys mean byte-identical upload payloads
+     */
+    private String contentKey;
+    
+    /**
+     * Encoded size the image would have had without text-page preprocessing
+     * (0 when no preprocessing was applied)
+     */
+    private long baselineSize;
+    
     // Constructor
     public CapturedImage() {
-        this.id = String.valueOf(System.currentTimeMillis());
+        // Unique even for images created in the same millisecond by parallel workers
+        this.id = UUID.randomUUID().toString();
         this.timestamp = System.currentTimeMillis();
     }
     
@@ -75,12 +120,84 @@ public class CapturedImage {
         this.id = id;
     }
     
-    public String getBase64Data() {
-        return base64Data;
+    public File getPayloadFile() {
+        return payloadFile;
+    }
+    
+    /**
+     * Attach the processed payload; any previous payload file is deleted
+     */
+    public synchronized void setPayloadFile(File payloadFile) {
+        if (this.payloadFile != null && !this.payloadFile.equals(payloadFile)) {
+            this.payloadFile.delete();
+            setEncodedFile(null);
+        }
+        this.payloadFile = payloadFile;
+        this.payloadSize = payloadFile != null ? payloadFile.length() : 0;
+    }
+    
+    /**
+     * Swap in a re-encoded payload together with its format
+     * The MIME type is set first, so whoever sees the new payload file (e.g. a pre-encode
+     * job restarting on it) also sees its MIME type.
+     */
+    public synchronized void replacePayload(File payloadFile, String mimeType) {
+        this.mimeType = mimeType;
+        setPayloadFile(payloadFile);
+    }
+    
+    public File getEncodedFile() {
+        return encodedFile;
+    }
+    
+    /**
+     * Attach the prepared data URI file; any previous one is deleted
+     */
+    public void setEncodedFile(File encodedFile) {
+        File previous = this.encodedFile;
+        if (previous != null && !previous.equals(encodedFile)) {
+            previous.delete();
+        }
+        this.encodedFile = encodedFile;
+    }
+    
+    /**
+     * Attach a data URI prepared from source, unless the payload was replaced meanwhile
+     * @param source Payload the data URI was encoded from (null for documents)
+     * @return false if source is no longer this image's payload (nothing attached)
+     */
+    public synchronized boolean attachEncodedFile(File source, File encodedFile) {
+        if (source != null && !source.equals(payloadFile)) {
+            return false;
+        }
+        setEncodedFile(encodedFile);
+        return true;
     }
     
-    public void setBase64Data(String base64Data) {
-        this.base64Data = base64Data;
+    /**
+     * Check if the upload data URI is already prepared (nothing left to encode)
+     */
+    public boolean isEncoded() {
+        File file = encodedFile;
+        return file != null && file.isFile();
+    }
+    
+    /**
+     * Open the processed payload for streaming
+     */
+    public InputStream openPayload() throws IOException {
+        if (payloadFile == null) {
+            throw new IOException("Image " + id + " has no processed payload");
+        }
+        return new FileInputStream(payloadFile);
+    }
+    
+    /**
+     * Get upload payload size in bytes without encoding anything
+     * @return Raw byte count, or 0 if not processed (or a document)
+     */
+    public long getPayloadSize() {
+        return payloadFile != null ? payloadSize : 0;
     }
     
     public ImageRegion getRegion() {
@@ -139,6 +256,46 @@ public class CapturedImage {
         this.fromCamera = fromCamera;
     }
     
+    public String getMimeType() {
+        return mimeType;
+    }
+    
+    public void setMimeType(String mimeType) {
+        this.mimeType = mimeType;
+    }
+    
+    public int getEncodeQuality() {
+        return encodeQuality;
+    }
+    
+    public void setEncodeQuality(int encodeQuality) {
+        this.encodeQuality = encodeQuality;
+    }
+    
+    public String getContentKey() {
+        return contentKey;
+    }
+    
+    public void setContentKey(String contentKey) {
+        this.contentKey = contentKey;
+    }
+    
+    public long getBaselineSize() {
+        return baselineSize;
+    }
+    
+    public void setBaselineSize(long baselineSize) {
+        this.baselineSize = baselineSize;
+    }
+    
+    /**
+     * Check if this entry is a document (PDF) whose bytes are read
+     * from {@link #getImageUri()} at upload time instead of being held in memory
+     */
+    public boolean isDocument() {
+        return mimeType != null && mimeType.contains("pdf");
+    }
+    
     /**
      * Check if the image has a valid selected region
      */
@@ -147,19 +304,29 @@ public class CapturedImage {
     }
     
     /**
-     * Check if the image is ready for upload (has base64 data)
+     * Check if the image is ready for upload (has a payload file,
+     * or is a document that can be streamed from its URI)
      */
     public boolean isReadyForUpload() {
-        return base64Data != null && !base64Data.isEmpty();
+        if (isDocument()) {
+            return imageUri != null;
+        }
+        return payloadFile != null && payloadSize > 0;
     }
     
     /**
-     * Cleanup resources (recycle bitmaps)
+     * Cleanup resources (return thumbnail to the bitmap pool, delete payload and data URI files)
      */
     public void cleanup() {
         if (thumbnail != null && !thumbnail.isRecycled()) {
-            thumbnail.recycle();
+            BitmapPool.getInstance().put(thumbnail);
             thumbnail = null;
         }
+        if (payloadFile != null) {
+            payloadFile.delete();
+            payloadFile = null;
+            payloadSize = 0;
+        }
+        setEncodedFile(null);
     }
 }
@@ -41,15 +41,37 @@ public class PhotoSession {
     
     /**
      * Add an image to the session
-     * @return true if added successfully, false if session is full
+     * An exact duplicate (same content key: same source bytes, region and encoding)
+     * is rejected and its payload released, so it is never uploaded twice.
+     * @return true if added successfully, false if session is full or image is a duplicate
      */
     public boolean addImage(CapturedImage image) {
         if (images.size() >= MAX_IMAGES) {
             return false;
         }
+        if (findDuplicate(image) != null) {
+            image.cleanup();
+            return false;
+        }
         return images.add(image);
     }
     
+    /**
+     * Get the session image with the same content key, or null
+     */
+    public CapturedImage findDuplicate(CapturedImage image) {
+        String key = image.getContentKey();
+        if (key == null) {
+            return null;
+        }
+        for (CapturedImage existing : images) {
+            if (existing != image && key.equals(existing.getContentKey())) {
+                return existing;
+            }
+        }
+        return null;
+    }
+    
     /**
      * Remove an image by ID
      */
@@ -97,19 +119,6 @@ public class PhotoSession {
         return images.size() >= MAX_IMAGES;
     }
     
-    /**
-     * Get all base64 encoded images ready for upload
-     */
-    public List<String> getBase64Images() {
-        List<String> base64List = new ArrayList<>();
-        for (CapturedImage image : images) {
-            if (image.isReadyForUpload()) {
-                base64List.add(image.getBase64Data());
-            }
-        }
-        return base64List;
-    }
-    
     /**
      * Check if all images are ready for upload
      */
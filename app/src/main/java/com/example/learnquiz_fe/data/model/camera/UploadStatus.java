@@ -0,0 +1,48 @@
+package com.example.learnquiz_fe.data.model.camera;
+
+/**
+ * Upload readiness of one session image
+ * Tracks the background preparation of its data URI (see UploadPreEncoder)
+ */
+public class UploadStatus {
+    
+    public enum State {
+        /** Waiting for the encoder */
+        QUEUED,
+        /** Data URI being written */
+        ENCODING,
+        /** Data URI ready, upload only copies bytes */
+        READY,
+        /** Preparation failed; the upload encodes on the fly instead */
+        FAILED
+    }
+    
+    private final State state;
+    
+    /**
+     * Share of the source already encoded, 0-100
+     */
+    private final int progress;
+    
+    public UploadStatus(State state, int progress) {
+        this.state = state;
+        this.progress = progress;
+    }
+    
+    public State getState() {
+        return state;
+    }
+    
+    public int getProgress() {
+        return progress;
+    }
+    
+    public boolean isReady() {
+        return state == State.READY;
+    }
+    
+    @Override
+    public String toString() {
+        return state + " " + progress + "%";
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.learnquiz_fe.data.model.quiz;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Answer key of a quiz flattened into primitive arrays, built once per quiz
+ * Scoring and review read these instead of scanning each question's List<QuizAnswer>,
+ * so checking one answer is O(1) and scoring a whole attempt is one pass over ints.
+ *
+ * An attempt is an int vector with one selection per question: the answer index,
+ * {@link #TIMED_OUT} or {@link #UNANSWERED}.
+ */
+public class CompiledQuiz {
+
+    /** The question's timer ran out */
+    public static final int TIMED_OUT = -1;
+    /** The question was not reached / not answered */
+    public static final int UNANSWERED = -2;
+
+    // Bit i set = option i is correct (options beyond 64 are never marked correct)
+    private final long[] correctMask;
+    // First correct option per question, -1 if none
+    private final int[] correctIndex;
+    private final int[] optionCount;
+
+    public CompiledQuiz(GenerateQuizResponse quiz) {
+        List<QuizQuestion> questions = quiz.getQuestions();
+        int count = questions != null ? questions.size() : 0;
+        correctMask = new long[count];
+        correctIndex = new int[count];
+        optionCount = new int[count];
+
+        for (int q = 0; q < count; q++) {
+            List<QuizAnswer> answers = questions.get(q).getAnswers();
+            int options = answers != null ? answers.size() : 0;
+            optionCount[q] = options;
+            correctIndex[q] = -1;
+            for (int a = 0; a < options && a < Long.SIZE; a++) {
+                if (answers.get(a).isTrue()) {
+                    correctMask[q] |= 1L << a;
+                    if (correctIndex[q] == -1) {
+                        correctIndex[q] = a;
+                    }
+                }
+            }
+        }
+    }
+
+    public int getQuestionCount() {
+        return correctIndex.length;
+    }
+
+    public int getOptionCount(int question) {
+        return optionCount[question];
+    }
+
+    /**
+     * First correct option of a question, -1 if it has none
+     */
+    public int getCorrectIndex(int question) {
+        return correctIndex[question];
+    }
+
+    /**
+     * Whether option (or a selection: TIMED_OUT/UNANSWERED never score) is correct
+     */
+    public boolean isCorrectOption(int question, int option) {
+        return option >= 0 && option < Long.SIZE && (correctMask[question] >>> option & 1L) != 0;
+    }
+
+    /**
+     * Number of correct selections in an attempt
+     */
+    public int score(int[] selections) {
+        int correct = 0;
+        int count = Math.min(selections.length, correctMask.length);
+        for (int q = 0; q < count; q++) {
+            if (isCorrectOption(q, selections[q])) {
+                correct++;
+            }
+        }
+        return correct;
+    }
+
+    /**
+     * Attempt with every question unanswered
+     */
+    public int[] newAttempt() {
+        int[] selections = new int[correctIndex.length];
+        Arrays.fill(selections, UNANSWERED);
+        return selections;
+    }
+
+    /**
+     * Whether a selection means the question is done (answered or timed out)
+     */
+    public static boolean isAnswered(int selection) {
+        return selection != UNANSWERED;
+    }
+}
@@ -119,7 +119,15 @@ public class GenerateQuizRequest {
      */
     public boolean isValid() {
         return images != null && !images.isEmpty() && images.size() <= 10
-                && language != null && language.matches("^[a-z]{2}$")
+                && isValidSettings();
+    }
+    
+    /**
+     * Validate quiz settings only (language, question count, time limit)
+     * Used when images are streamed separately from this object
+     */
+    public boolean isValidSettings() {
+        return language != null && language.matches("^[a-z]{2}$")
                 && questionCount >= 1 && questionCount <= 20
                 && quizExamTimeLimit >= 0 && quizExamTimeLimit <= 7200;
     }
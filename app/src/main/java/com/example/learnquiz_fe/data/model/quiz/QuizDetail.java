@@ -0,0 +1,70 @@
+package com.example.learnquiz_fe.data.model.quiz;
+
+import com.example.learnquiz_fe.data.model.user.response.UserResponse;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+
+/**
+ * Full quiz as returned by GET /api/quiz/{id}
+ * One model for both the detail screen (author, rating, plays, tags) and taking the quiz:
+ * it is a GenerateQuizResponse, so the parsed detail goes straight into QuizSessionStore
+ * without fetching or parsing the same payload a second time.
+ */
+public class QuizDetail extends GenerateQuizResponse {
+
+    @SerializedName("author")
+    private UserResponse author;
+
+    @SerializedName("averageRating")
+    private double averageRating;
+
+    @SerializedName("ratingCount")
+    private int ratingCount;
+
+    @SerializedName("playsCount")
+    private int playsCount;
+
+    @SerializedName("tags")
+    private List<String> tags;
+
+    public UserResponse getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(UserResponse author) {
+        this.author = author;
+    }
+
+    public double getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(double averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    public int getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(int ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public int getPlaysCount() {
+        return playsCount;
+    }
+
+    public void setPlaysCount(int playsCount) {
+        this.playsCount = playsCount;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+}
@@ -15,6 +15,10 @@ public class SubmitQuizRequestDTO {
     @SerializedName("answers")
     private List<SubmittedAnswerDTO> answers;
     
+    // Client-generated id of this attempt; the same attempt sent twice carries the same id
+    @SerializedName("attemptId")
+    private String attemptId;
+    
     public SubmitQuizRequestDTO() {
         this.answers = new ArrayList<>();
     }
@@ -41,6 +45,14 @@ public class SubmitQuizRequestDTO {
         this.answers = answers;
     }
     
+    public String getAttemptId() {
+        return attemptId;
+    }
+    
+    public void setAttemptId(String attemptId) {
+        this.attemptId = attemptId;
+    }
+    
     /**
      * Validate request
      */
@@ -23,6 +23,10 @@ public class ApiEndpoints {
      * Quiz generation endpoint
      */
     public static final String GENERATE_QUIZ = "api/quiz/generate";
+    /**
+     * Quiz generation with raw files as multipart parts (no Base64)
+     */
+    public static final String GENERATE_QUIZ_UPLOAD = "api/quiz/generate/upload";
     /**
      * Authentication endpoints
      */
@@ -69,7 +73,10 @@ public class ApiEndpoints {
     public static final String FEEDBACK_STATS = "api/Feedback/quiz/{quizId}/stats";
 
     // Request timeout configuration (in seconds)
-    public static final int CONNECT_TIMEOUT = 500;
-    public static final int READ_TIMEOUT = 500;
-    public static final int WRITE_TIMEOUT = 500;
+    // Defaults only; RequestPolicy sets per-endpoint timeouts and deadlines
+    public static final int CONNECT_TIMEOUT = 10;
+    public static final int READ_TIMEOUT = 30;
+    public static final int WRITE_TIMEOUT = 30;
+    // Hard cap for any call, including retries (longest policy: quiz generation)
+    public static final int CALL_TIMEOUT = 300;
 }
\ No newline at end of file
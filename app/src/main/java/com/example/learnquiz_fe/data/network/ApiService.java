@@ -4,6 +4,7 @@ import com.example.learnquiz_fe.data.model.User;
 import com.example.learnquiz_fe.data.model.auth.AuthResponse;
 import com.example.learnquiz_fe.data.model.auth.GoogleAuthResponse;
 import com.example.learnquiz_fe.data.model.auth.IdTokenRequest;
+import com.example.learnquiz_fe.data.model.auth.RefreshTokenRequest;
 import com.example.learnquiz_fe.data.dtos.quiz.QuizResponseDTO;
 import com.example.learnquiz_fe.data.model.feedback.CreateFeedbackRequest;
 import com.example.learnquiz_fe.data.model.feedback.Feedback;
@@ -17,6 +18,7 @@ import com.example.learnquiz_fe.data.model.auth.RegisterRequestDTO;
 import com.example.learnquiz_fe.data.model.quiz.ApiResponse;
 import com.example.learnquiz_fe.data.model.quiz.GenerateQuizRequest;
 import com.example.learnquiz_fe.data.model.quiz.GenerateQuizResponse;
+import com.example.learnquiz_fe.data.model.quiz.QuizDetail;
 import com.example.learnquiz_fe.data.model.quizhistory.QuizHistoryResponseDTO;
 import com.example.learnquiz_fe.data.model.quizhistory.SubmitQuizRequestDTO;
 import com.example.learnquiz_fe.data.model.quizhistory.SubmitQuizResponseDTO;
@@ -24,13 +26,17 @@ import com.example.learnquiz_fe.data.model.user.UserRequestDTO;
 
 import java.util.List;
 
+import okhttp3.MultipartBody;
+import okhttp3.RequestBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.DELETE;
 import retrofit2.http.GET;
 import retrofit2.http.Header;
+import retrofit2.http.Multipart;
 import retrofit2.http.POST;
 import retrofit2.http.PUT;
+import retrofit2.http.Part;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
 
@@ -52,6 +58,33 @@ public interface ApiService {
             @Body GenerateQuizRequest request
     );
 
+    /**
+     * Generate quiz from a pre-built streaming body
+     * POST /api/quiz/generate
+     *
+     * @param body JSON body written straight to the socket (see StreamingQuizRequestBody)
+     * @return ApiResponse containing GenerateQuizResponse
+     */
+    @POST(ApiEndpoints.GENERATE_QUIZ)
+    Call<ApiResponse<GenerateQuizResponse>> generateQuizStreaming(
+            @Body RequestBody body
+    );
+
+    /**
+     * Generate quiz from raw image/PDF bytes
+     * POST /api/quiz/generate/upload (multipart/form-data)
+     *
+     * @param settings Quiz settings as a JSON part (GenerateQuizRequest without images)
+     * @param files One part per image or document, raw bytes
+     * @return ApiResponse containing GenerateQuizResponse
+     */
+    @Multipart
+    @POST(ApiEndpoints.GENERATE_QUIZ_UPLOAD)
+    Call<ApiResponse<GenerateQuizResponse>> generateQuizMultipart(
+            @Part("settings") RequestBody settings,
+            @Part List<MultipartBody.Part> files
+    );
+
     /**
      * Generate quiz with authentication token
      *
@@ -78,9 +111,9 @@ public interface ApiService {
     );
 
     // This one differs from getQuizDetail by purpose
-    // Used when viewing quiz details for taking the quiz
+    // Used when viewing quiz details; the same parsed QuizDetail is used for taking the quiz
     @GET(ApiEndpoints.GET_QUIZ_DETAIL)
-    Call<ApiResponse<QuizResponseDTO>> getQuizDetailForView(
+    Call<ApiResponse<QuizDetail>> getQuizDetailForView(
             @Path("id") String quizId
     );
 
@@ -91,6 +124,7 @@ public interface ApiService {
      * @param request Submit quiz request with quizId and answers
      * @return ApiResponse containing SubmitQuizResponseDTO with score and results
      */
+    @GzipRequest
     @POST(ApiEndpoints.SUBMIT_QUIZ)
     Call<ApiResponse<SubmitQuizResponseDTO>> submitQuiz(
             @Body SubmitQuizRequestDTO request
@@ -104,6 +138,13 @@ public interface ApiService {
 
     @POST(ApiEndpoints.REGISTER)
     Call<ApiResponse<AuthResponse>> register(@Body RegisterRequestDTO registerRequest);
+
+    /**
+     * Exchange refresh token for a new access token
+     * Called synchronously by TokenAuthenticator on 401
+     */
+    @POST(ApiEndpoints.REFRESH_TOKEN)
+    Call<ApiResponse<AuthResponse>> refreshToken(@Body RefreshTokenRequest refreshTokenRequest);
     @PUT(ApiEndpoints.UPDATE_PROFILE)
     Call<ApiResponse<User>> updateProfile(@Body UserRequestDTO userRequestDTO);
 
@@ -113,10 +154,21 @@ public interface ApiService {
     @GET(ApiEndpoints.GET_PUBLIC_QUIZ)
     Call<ApiResponse<List<QuizResponseDTO>>> getPublicQuizzies(@Query("query") String query);
 
+    /**
+     * Same as getPublicQuizzies, with a request Cache-Control
+     * Pass CachePolicyInterceptor.FORCE_NETWORK to skip the cached copy (pull-to-refresh)
+     */
+    @GET(ApiEndpoints.GET_PUBLIC_QUIZ)
+    Call<ApiResponse<List<QuizResponseDTO>>> getPublicQuizzies(
+            @Query("query") String query,
+            @Header("Cache-Control") String cacheControl
+    );
+
     @DELETE(ApiEndpoints.DELETE_QUIZ)
     Call<ApiResponse<Object>> deleteQuiz(
             @Path("id") String quizId
     );
+    @GzipRequest
     @PUT(ApiEndpoints.UPDATE_QUIZ)
     Call<ApiResponse<Object>> updateQuiz(
             @Path("id") String quizId,
@@ -166,6 +218,7 @@ public interface ApiService {
      * Tạo feedback mới (Create)
      * URL: api/Feedback
      */
+    @GzipRequest
     @POST(ApiEndpoints.FEEDBACK_BASE)
     Call<ApiResponse<Feedback>> createFeedback(
             @Body CreateFeedbackRequest request
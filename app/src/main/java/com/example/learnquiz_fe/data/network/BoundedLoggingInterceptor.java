@@ -0,0 +1,182 @@
+package com.example.learnquiz_fe.data.network;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+
+/**
+ * HTTP logger that never holds more than a bounded number of body bytes
+ * Replacement for HttpLoggingInterceptor at BODY level, which copies every request
+ * (including megabytes of Base64 images) into a String before writing it to logcat.
+ *
+ * - Bodies larger than maxBodyBytes, one-shot/streaming bodies and binary content
+ *   are not read; only their size and the call timing are logged
+ * - Base64 data URIs inside JSON are replaced by their length
+ * - Authorization / Cookie headers are redacted
+ */
+public class BoundedLoggingInterceptor implements Interceptor {
+
+    private static final String TAG = "OkHttp";
+
+    /**
+     * How much to log, same meaning as HttpLoggingInterceptor.Level
+     */
+    public enum Level {
+        /** Nothing */
+        NONE,
+        /** Request line, response code, timing and sizes */
+        BASIC,
+        /** BASIC + headers (sensitive ones redacted) */
+        HEADERS,
+        /** HEADERS + small text bodies */
+        BODY
+    }
+
+    private static final Set<String> REDACTED_HEADERS = new HashSet<>(Arrays.asList(
+            "authorization", "cookie", "set-cookie", "proxy-authorization"));
+
+    // "data:image/jpeg;base64,AAAA..." -> keep the prefix, drop the payload
+    private static final Pattern BASE64_DATA = Pattern.compile("(;base64,)[A-Za-z0-9+/=]{64,}");
+
+    private final Level level;
+    private final long maxBodyBytes;
+
+    /**
+     * @param level Logging level
+     * @param maxBodyBytes Largest body (bytes) that is read and logged
+     */
+    public BoundedLoggingInterceptor(Level level, long maxBodyBytes) {
+        this.level = level;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (level == Level.NONE) {
+            return chain.proceed(request);
+        }
+
+        boolean logHeaders = level == Level.HEADERS || level == Level.BODY;
+        boolean logBody = level == Level.BODY;
+
+        RequestBody requestBody = request.body();
+        long requestSize = requestBody != null ? requestBody.contentLength() : 0;
+        Log.d(TAG, "--> " + request.method() + " " + request.url()
+                + (requestBody != null ? " (" + describeSize(requestSize) + " body)" : ""));
+
+        if (logHeaders) {
+            logHeaders(request.headers());
+        }
+        if (logBody && requestBody != null) {
+            logRequestBody(requestBody, requestSize);
+        }
+
+        long startNs = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            Log.d(TAG, "<-- HTTP FAILED after " + elapsedMs(startNs) + "ms: " + e);
+            throw e;
+        }
+        long tookMs = elapsedMs(startNs);
+
+        ResponseBody responseBody = response.body();
+        long responseSize = responseBody != null ? responseBody.contentLength() : 0;
+        Log.d(TAG, "<-- " + response.code() + " " + request.method() + " " + request.url()
+                + " (" + tookMs + "ms, " + describeSize(responseSize) + " body"
+                + (response.cacheResponse() != null ? ", cache" : "") + ")");
+
+        if (logHeaders) {
+            logHeaders(response.headers());
+        }
+        if (logBody && responseBody != null) {
+            logResponseBody(response, responseBody, responseSize);
+        }
+        return response;
+    }
+
+    private void logRequestBody(RequestBody body, long size) throws IOException {
+        if (body.isOneShot() || body.isDuplex()) {
+            Log.d(TAG, "--> END (streamed body omitted)");
+        } else if (size < 0 || size > maxBodyBytes) {
+            Log.d(TAG, "--> END (" + describeSize(size) + " body omitted)");
+        } else if (!isText(body.contentType())) {
+            Log.d(TAG, "--> END (binary " + size + "-byte body omitted)");
+        } else {
+            Buffer buffer = new Buffer();
+            body.writeTo(buffer);
+            Log.d(TAG, sanitize(buffer.readString(StandardCharsets.UTF_8)));
+            Log.d(TAG, "--> END (" + size + "-byte body)");
+        }
+    }
+
+    private void logResponseBody(Response response, ResponseBody body, long size) throws IOException {
+        if (size > maxBodyBytes) {
+            Log.d(TAG, "<-- END (" + size + "-byte body omitted)");
+        } else if (!isText(body.contentType())) {
+            Log.d(TAG, "<-- END (binary body omitted)");
+        } else {
+            // peekBody reads at most maxBodyBytes, the real body stays untouched for the caller
+            ResponseBody peeked = response.peekBody(maxBodyBytes);
+            String text = peeked.string();
+            boolean truncated = size < 0 && peeked.contentLength() >= maxBodyBytes;
+            Log.d(TAG, sanitize(text) + (truncated ? "…" : ""));
+            Log.d(TAG, "<-- END" + (truncated ? " (truncated at " + maxBodyBytes + " bytes)" : ""));
+        }
+    }
+
+    private void logHeaders(Headers headers) {
+        for (int i = 0; i < headers.size(); i++) {
+            String name = headers.name(i);
+            String value = REDACTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))
+                    ? "██" : headers.value(i);
+            Log.d(TAG, name + ": " + value);
+        }
+    }
+
+    /**
+     * JSON, text, XML and form bodies are logged; images, PDFs and multipart are not
+     */
+    private static boolean isText(MediaType contentType) {
+        if (contentType == null) return false;
+        String type = contentType.type();
+        String subtype = contentType.subtype().toLowerCase(Locale.ROOT);
+        return "text".equals(type)
+                || subtype.contains("json")
+                || subtype.contains("xml")
+                || "x-www-form-urlencoded".equals(subtype);
+    }
+
+    private static String sanitize(String body) {
+        return BASE64_DATA.matcher(body).replaceAll("$1<base64 omitted>");
+    }
+
+    private static String describeSize(long size) {
+        return size >= 0 ? size + "-byte" : "unknown-length";
+    }
+
+    private static long elapsedMs(long startNs) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs);
+    }
+}
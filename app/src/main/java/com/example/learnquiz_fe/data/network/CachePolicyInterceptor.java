@@ -0,0 +1,142 @@
+package com.example.learnquiz_fe.data.network;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import okhttp3.Cache;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Network interceptor that applies per-endpoint freshness rules to GET responses
+ * The OkHttp {@link Cache} then serves fresh entries without a request and revalidates
+ * stale ones with If-None-Match / If-Modified-Since (server ETag / Last-Modified),
+ * so unchanged data costs a 304 instead of a full payload.
+ *
+ * Endpoints not listed here keep whatever Cache-Control the server sends.
+ */
+public class CachePolicyInterceptor implements Interceptor {
+
+    private static final String TAG = "CachePolicyInterceptor";
+
+    /**
+     * Request header value that skips the fresh cache entry (pull-to-refresh)
+     */
+    public static final String FORCE_NETWORK = "no-cache";
+
+    /**
+     * Disk cache size for GET responses
+     */
+    public static final long CACHE_SIZE_BYTES = 10L * 1024 * 1024; // 10MB
+
+    /**
+     * Freshness (max-age, seconds) per endpoint; 0 = always revalidate, NO_STORE = never cache
+     * First match wins, so specific paths go before templates like api/quiz/{id}
+     */
+    private static final int NO_STORE = -1;
+    private static final Map<Pattern, Integer> FRESHNESS = new LinkedHashMap<>();
+
+    static {
+        FRESHNESS.put(toPattern(ApiEndpoints.GET_MY_QUIZZES), NO_STORE);
+        FRESHNESS.put(toPattern(ApiEndpoints.GET_PUBLIC_QUIZ), 30);
+        FRESHNESS.put(toPattern(ApiEndpoints.FEEDBACK_STATS), 30);
+        FRESHNESS.put(toPattern(ApiEndpoints.FEEDBACK_BY_QUIZ), 15);
+        FRESHNESS.put(toPattern(ApiEndpoints.GET_QUIZ_DETAIL), 0);
+    }
+
+    private final Cache cache;
+
+    public CachePolicyInterceptor(Cache cache) {
+        this.cache = cache;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+
+        if (!"GET".equals(request.method())) {
+            if (response.isSuccessful()) {
+                evictRelated(request);
+            }
+            return response;
+        }
+
+        Integer maxAge = findFreshness(request);
+        if (maxAge == null || !response.isSuccessful() || response.header("Cache-Control") != null) {
+            return response;
+        }
+
+        String cacheControl;
+        if (maxAge == NO_STORE) {
+            cacheControl = "no-store";
+        } else if (maxAge > 0) {
+            cacheControl = "private, max-age=" + maxAge;
+        } else {
+            cacheControl = "private, no-cache";
+        }
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .header("Cache-Control", cacheControl)
+                .build();
+    }
+
+    private Integer findFreshness(Request request) {
+        String path = relativePath(request);
+        for (Map.Entry<Pattern, Integer> rule : FRESHNESS.entrySet()) {
+            if (rule.getKey().matcher(path).matches()) {
+                return rule.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A successful write to api/{resource}/... makes cached reads of the same resource stale
+     * e.g. rating a quiz evicts api/quiz/* (detail and public list), creating feedback evicts api/Feedback/*
+     */
+    private void evictRelated(Request request) {
+        if (cache == null) return;
+
+        String[] segments = relativePath(request).split("/");
+        if (segments.length < 2) return;
+        String prefix = segments[0] + "/" + segments[1];
+
+        try {
+            Iterator<String> urls = cache.urls();
+            while (urls.hasNext()) {
+                String url = urls.next().toLowerCase(Locale.ROOT);
+                if (url.contains("/" + prefix)) {
+                    urls.remove();
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to evict cache entries for " + prefix, e);
+        }
+    }
+
+    /**
+     * Lower-case path relative to the API base, without leading slash
+     */
+    private static String relativePath(Request request) {
+        String path = request.url().encodedPath();
+        return (path.startsWith("/") ? path.substring(1) : path).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Turn an ApiEndpoints template ("api/quiz/{id}") into a path matcher
+     */
+    private static Pattern toPattern(String endpoint) {
+        return Pattern.compile(endpoint.toLowerCase(Locale.ROOT).replaceAll("\\{[^}]+\\}", "[^/]+"));
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.learnquiz_fe.data.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Invocation;
+import retrofit2.http.DELETE;
+import retrofit2.http.GET;
+import retrofit2.http.PATCH;
+import retrofit2.http.POST;
+import retrofit2.http.PUT;
+
+/**
+ * Per-call OkHttp event listener that measures where the time of a request goes
+ * (DNS, connect, TLS, request write, server wait, response read) and hands the
+ * finished {@link NetworkMetrics.CallRecord} to {@link NetworkMetrics}.
+ *
+ * Install with {@code OkHttpClient.Builder.eventListenerFactory(CallTimingListener.FACTORY)}.
+ */
+public class CallTimingListener extends EventListener {
+
+    public static final EventListener.Factory FACTORY = call -> new CallTimingListener();
+
+    private long callStartNs;
+    private long dnsStartNs = -1, dnsEndNs = -1;
+    private long connectStartNs = -1, connectEndNs = -1;
+    private long secureStartNs = -1, secureEndNs = -1;
+    private long requestStartNs = -1, requestEndNs = -1;
+    private long responseStartNs = -1, responseEndNs = -1;
+    private long bytesSent;
+    private long bytesReceived;
+    private boolean newConnection;
+    private boolean usedConnection;
+    private int responseCode = -1;
+    private String endpoint;
+    private String method;
+
+    @Override
+    public void callStart(@NonNull Call call) {
+        callStartNs = System.nanoTime();
+        Request request = call.request();
+        method = request.method();
+        endpoint = endpointOf(request);
+    }
+
+    @Override
+    public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+        dnsStartNs = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(@NonNull Call call, @NonNull String domainName,
+                       @NonNull List<InetAddress> inetAddressList) {
+        dnsEndNs = System.nanoTime();
+    }
+
+    @Override
+    public void connectStart(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                             @NonNull Proxy proxy) {
+        connectStartNs = System.nanoTime();
+        newConnection = true;
+    }
+
+    @Override
+    public void secureConnectStart(@NonNull Call call) {
+        secureStartNs = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(@NonNull Call call, @Nullable Handshake handshake) {
+        secureEndNs = System.nanoTime();
+    }
+
+    @Override
+    public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                           @NonNull Proxy proxy, @Nullable Protocol protocol) {
+        connectEndNs = System.nanoTime();
+    }
+
+    @Override
+    public void connectFailed(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                              @NonNull Proxy proxy, @Nullable Protocol protocol,
+                              @NonNull IOException ioe) {
+        connectEndNs = System.nanoTime();
+    }
+
+    @Override
+    public void connectionAcquired(@NonNull Call call, @NonNull Connection connection) {
+        usedConnection = true;
+        // Follow-ups (auth refresh, redirects) restart the request phases
+        requestStartNs = -1;
+        requestEndNs = -1;
+    }
+
+    @Override
+    public void requestHeadersStart(@NonNull Call call) {
+        requestStartNs = System.nanoTime();
+    }
+
+    @Override
+    public void requestHeadersEnd(@NonNull Call call, @NonNull Request request) {
+        requestEndNs = System.nanoTime();
+    }
+
+    @Override
+    public void requestBodyEnd(@NonNull Call call, long byteCount) {
+        requestEndNs = System.nanoTime();
+        bytesSent += byteCount;
+    }
+
+    @Override
+    public void responseHeadersStart(@NonNull Call call) {
+        responseStartNs = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersEnd(@NonNull Call call, @NonNull Response response) {
+        responseCode = response.code();
+    }
+
+    @Override
+    public void responseBodyEnd(@NonNull Call call, long byteCount) {
+        responseEndNs = System.nanoTime();
+        bytesReceived += byteCount;
+    }
+
+    @Override
+    public void callEnd(@NonNull Call call) {
+        finish(null);
+    }
+
+    @Override
+    public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+        finish(ioe.getClass().getSimpleName());
+    }
+
+    private void finish(@Nullable String error) {
+        long endNs = System.nanoTime();
+
+        NetworkMetrics.CallRecord record = new NetworkMetrics.CallRecord();
+        record.endpoint = endpoint;
+        record.method = method;
+        record.code = responseCode;
+        record.error = error;
+        record.totalMs = toMs(callStartNs, endNs);
+        record.dnsMs = toMs(dnsStartNs, dnsEndNs);
+        record.connectMs = toMs(connectStartNs, connectEndNs);
+        record.tlsMs = toMs(secureStartNs, secureEndNs);
+        record.requestWriteMs = toMs(requestStartNs, requestEndNs);
+        record.serverWaitMs = toMs(requestEndNs, responseStartNs);
+        record.responseReadMs = toMs(responseStartNs, responseEndNs);
+        record.bytesSent = bytesSent;
+        record.bytesReceived = bytesReceived;
+        record.connectionReused = usedConnection && !newConnection;
+        record.timestamp = System.currentTimeMillis();
+
+        NetworkMetrics.getInstance().record(record);
+    }
+
+    /**
+     * ApiEndpoints template of the Retrofit method (e.g. "api/quiz/{id}"),
+     * falling back to the URL path for requests not made through ApiService
+     */
+    static String endpointOf(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation != null) {
+            for (Annotation annotation : invocation.method().getAnnotations()) {
+                if (annotation instanceof GET) return ((GET) annotation).value();
+                if (annotation instanceof POST) return ((POST) annotation).value();
+                if (annotation instanceof PUT) return ((PUT) annotation).value();
+                if (annotation instanceof DELETE) return ((DELETE) annotation).value();
+                if (annotation instanceof PATCH) return ((PATCH) annotation).value();
+            }
+        }
+        String path = request.url().encodedPath();
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+
+    /**
+     * Milliseconds between two marks, or -1 if the phase did not happen
+     */
+    private static long toMs(long startNs, long endNs) {
+        if (startNs < 0 || endNs < 0 || endNs < startNs) return -1;
+        return (endNs - startNs) / 1_000_000;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.learnquiz_fe.data.network;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * Request body that copies raw bytes from a content URI into the socket
+ * Used for multipart document (PDF) parts so the file is never loaded into memory
+ */
+public class ContentUriRequestBody extends RequestBody {
+
+    private final ContentResolver contentResolver;
+    private final Uri uri;
+    private final MediaType mediaType;
+    private final long contentLength;
+
+    /**
+     * @param contentResolver Resolver used to open the URI on each write
+     * @param uri Content URI of the file
+     * @param mimeType MIME type of the file
+     * @param contentLength File size in bytes, or -1 if unknown
+     */
+    public ContentUriRequestBody(ContentResolver contentResolver, Uri uri,
+                                 String mimeType, long contentLength) {
+        this.contentResolver = contentResolver;
+        this.uri = uri;
+        this.mediaType = MediaType.parse(mimeType);
+        this.contentLength = contentLength;
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return mediaType;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        InputStream inputStream = contentResolver.openInputStream(uri);
+        if (inputStream == null) {
+            throw new FileNotFoundException("Cannot open " + uri);
+        }
+        try (Source source = Okio.source(inputStream)) {
+            sink.writeAll(source);
+        }
+    }
+}
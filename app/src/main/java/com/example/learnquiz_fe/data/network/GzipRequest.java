@@ -0,0 +1,20 @@
+package com.example.learnquiz_fe.data.network;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an {@link ApiService} method whose endpoint accepts a gzip-encoded request body
+ * (Content-Encoding: gzip). Read at runtime by {@link GzipRequestInterceptor}.
+ *
+ * Only add this to endpoints the server is known to decompress; nothing is compressed
+ * until Constants.GZIP_REQUESTS_ENABLED is turned on.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface GzipRequest {
+}
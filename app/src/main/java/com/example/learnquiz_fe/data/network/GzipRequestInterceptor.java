@@ -0,0 +1,97 @@
+package com.example.learnquiz_fe.data.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.learnquiz_fe.utils.Constants;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+import retrofit2.Invocation;
+
+/**
+ * Gzips request bodies of {@link GzipRequest} endpoints above a size threshold
+ * Text-heavy JSON (quiz edits, submissions, feedback) shrinks several times,
+ * small bodies are sent as-is since gzip overhead would outweigh the gain.
+ *
+ * The body is compressed into memory once so Content-Length stays known
+ * and the request can still be retried.
+ *
+ * Disabled (bodies pass through untouched) while {@link Constants#GZIP_REQUESTS_ENABLED} is false.
+ */
+public class GzipRequestInterceptor implements Interceptor {
+
+    /**
+     * Bodies smaller than this are not compressed
+     */
+    public static final long MIN_GZIP_BYTES = 1024;
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        RequestBody body = request.body();
+
+        if (!Constants.GZIP_REQUESTS_ENABLED
+                || body == null
+                || request.header("Content-Encoding") != null
+                || body.isOneShot()
+                || body.contentLength() < MIN_GZIP_BYTES
+                || !isGzipEndpoint(request)) {
+            return chain.proceed(request);
+        }
+
+        Buffer compressed = new Buffer();
+        try (BufferedSink gzipSink = Okio.buffer(new GzipSink(compressed))) {
+            body.writeTo(gzipSink);
+        }
+
+        return chain.proceed(request.newBuilder()
+                .header("Content-Encoding", "gzip")
+                .method(request.method(), new BufferedRequestBody(body.contentType(), compressed))
+                .build());
+    }
+
+    private static boolean isGzipEndpoint(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        return invocation != null && invocation.method().isAnnotationPresent(GzipRequest.class);
+    }
+
+    /**
+     * Replayable body backed by an in-memory buffer
+     */
+    private static class BufferedRequestBody extends RequestBody {
+        private final MediaType contentType;
+        private final Buffer buffer;
+
+        BufferedRequestBody(MediaType contentType, Buffer buffer) {
+            this.contentType = contentType;
+            this.buffer = buffer;
+        }
+
+        @Nullable
+        @Override
+        public MediaType contentType() {
+            return contentType;
+        }
+
+        @Override
+        public long contentLength() {
+            return buffer.size();
+        }
+
+        @Override
+        public void writeTo(@NonNull BufferedSink sink) throws IOException {
+            sink.write(buffer.snapshot());
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.learnquiz_fe.data.network;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory ring buffer of recent HTTP call timings (filled by {@link CallTimingListener})
+ * Keeps the last {@link #CAPACITY} calls; older ones are overwritten.
+ * Summaries give per-endpoint percentiles for a debug screen, exportJson() dumps everything.
+ */
+public class NetworkMetrics {
+
+    public static final int CAPACITY = 200;
+
+    private static NetworkMetrics instance;
+
+    private final CallRecord[] records = new CallRecord[CAPACITY];
+    private int next = 0;
+    private int size = 0;
+
+    private NetworkMetrics() {
+    }
+
+    public static synchronized NetworkMetrics getInstance() {
+        if (instance == null) {
+            instance = new NetworkMetrics();
+        }
+        return instance;
+    }
+
+    /**
+     * Add a finished call, overwriting the oldest one when full
+     */
+    public synchronized void record(CallRecord record) {
+        records[next] = record;
+        next = (next + 1) % CAPACITY;
+        if (size < CAPACITY) size++;
+    }
+
+    /**
+     * Recorded calls, oldest first
+     */
+    public synchronized List<CallRecord> getRecords() {
+        List<CallRecord> result = new ArrayList<>(size);
+        int start = (next - size + CAPACITY) % CAPACITY;
+        for (int i = 0; i < size; i++) {
+            result.add(records[(start + i) % CAPACITY]);
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(records, null);
+        next = 0;
+        size = 0;
+    }
+
+    /**
+     * Per-endpoint summaries ("GET api/quiz/{id}" -> summary), in first-seen order
+     */
+    public List<EndpointSummary> getSummaries() {
+        Map<String, List<CallRecord>> byEndpoint = new LinkedHashMap<>();
+        for (CallRecord record : getRecords()) {
+            String key = record.method + " " + record.endpoint;
+            List<CallRecord> list = byEndpoint.get(key);
+            if (list == null) {
+                list = new ArrayList<>();
+                byEndpoint.put(key, list);
+            }
+            list.add(record);
+        }
+
+        List<EndpointSummary> summaries = new ArrayList<>();
+        for (Map.Entry<String, List<CallRecord>> entry : byEndpoint.entrySet()) {
+            summaries.add(summarize(entry.getKey(), entry.getValue()));
+        }
+        return summaries;
+    }
+
+    /**
+     * Summaries and raw records as a JSON string (for sharing from a debug screen)
+     */
+    public String exportJson() {
+        Gson gson = new Gson();
+        JsonObject root = new JsonObject();
+        root.addProperty("exportedAt", System.currentTimeMillis());
+
+        JsonArray summaries = new JsonArray();
+        for (EndpointSummary summary : getSummaries()) {
+            summaries.add(gson.toJsonTree(summary));
+        }
+        root.add("summaries", summaries);
+
+        JsonArray calls = new JsonArray();
+        for (CallRecord record : getRecords()) {
+            calls.add(gson.toJsonTree(record));
+        }
+        root.add("calls", calls);
+
+        return gson.toJson(root);
+    }
+
+    private static EndpointSummary summarize(String endpoint, List<CallRecord> records) {
+        EndpointSummary summary = new EndpointSummary();
+        summary.endpoint = endpoint;
+        summary.count = records.size();
+
+        long[] total = new long[records.size()];
+        long[] serverWait = new long[records.size()];
+        long sent = 0, received = 0;
+        int reused = 0;
+        for (int i = 0; i < records.size(); i++) {
+            CallRecord record = records.get(i);
+            total[i] = record.totalMs;
+            serverWait[i] = record.serverWaitMs;
+            sent += record.bytesSent;
+            received += record.bytesReceived;
+            if (record.connectionReused) reused++;
+            if (record.error != null || record.code >= 400) summary.failures++;
+        }
+        Arrays.sort(total);
+        Arrays.sort(serverWait);
+
+        summary.p50TotalMs = percentile(total, 50);
+        summary.p90TotalMs = percentile(total, 90);
+        summary.p99TotalMs = percentile(total, 99);
+        summary.p50ServerWaitMs = percentile(serverWait, 50);
+        summary.avgBytesSent = sent / records.size();
+        summary.avgBytesReceived = received / records.size();
+        summary.connectionReuseRate = (float) reused / records.size();
+        return summary;
+    }
+
+    /**
+     * Nearest-rank percentile of a sorted array, ignoring -1 (phase not measured)
+     */
+    private static long percentile(long[] sorted, int p) {
+        int first = 0;
+        while (first < sorted.length && sorted[first] < 0) first++;
+        int n = sorted.length - first;
+        if (n == 0) return -1;
+        int rank = (int) Math.ceil(p / 100.0 * n);
+        return sorted[first + Math.max(rank, 1) - 1];
+    }
+
+    /**
+     * One finished call; phase durations are -1 when the phase did not happen
+     * (e.g. no DNS/connect on a reused connection, nothing at all on a cache hit)
+     */
+    public static class CallRecord {
+        public String endpoint;
+        public String method;
+        public int code;
+        public String error;
+        public long timestamp;
+        public long totalMs;
+        public long dnsMs;
+        public long connectMs;
+        public long tlsMs;
+        public long requestWriteMs;
+        public long serverWaitMs;
+        public long responseReadMs;
+        public long bytesSent;
+        public long bytesReceived;
+        public boolean connectionReused;
+    }
+
+    /**
+     * Aggregated timings of one endpoint
+     */
+    public static class EndpointSummary {
+        public String endpoint;
+        public int count;
+        public int failures;
+        public long p50TotalMs;
+        public long p90TotalMs;
+        public long p99TotalMs;
+        public long p50ServerWaitMs;
+        public long avgBytesSent;
+        public long avgBytesReceived;
+        public float connectionReuseRate;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.learnquiz_fe.data.network;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import okhttp3.Request;
+
+/**
+ * Timeouts, overall deadline and retry budget for one endpoint
+ * Looked up per request by {@link RequestPolicyInterceptor}, keyed by
+ * HTTP method + ApiEndpoints template (e.g. "GET api/quiz/{id}").
+ *
+ * Only idempotent reads get retries; generation, payment and other writes are never replayed.
+ */
+public final class RequestPolicy {
+
+    /**
+     * Short reads behind list/detail screens: fail fast, retry twice
+     */
+    public static final RequestPolicy READ = new RequestPolicy(5, 10, 10, 20, 2);
+
+    /**
+     * Small writes (login, submit, feedback...): no replay
+     */
+    public static final RequestPolicy WRITE = new RequestPolicy(10, 30, 30, 45, 0);
+
+    /**
+     * Quiz generation: large upload + slow AI processing, long deadline, no replay
+     */
+    public static final RequestPolicy GENERATE = new RequestPolicy(10, 180, 120, 300, 0);
+
+    /**
+     * Payment: never replayed, a duplicate would create a second order
+     */
+    public static final RequestPolicy PAYMENT = new RequestPolicy(10, 30, 30, 60, 0);
+
+    private static final Map<String, RequestPolicy> POLICIES = new HashMap<>();
+
+    static {
+        put("POST", ApiEndpoints.GENERATE_QUIZ, GENERATE);
+        put("POST", ApiEndpoints.GENERATE_QUIZ_UPLOAD, GENERATE);
+        put("POST", ApiEndpoints.CREATE_PAYMENT_INTENT, PAYMENT);
+        put("GET", ApiEndpoints.GET_ORDER, READ);
+        put("GET", ApiEndpoints.GET_PUBLIC_QUIZ, READ);
+        put("GET", ApiEndpoints.GET_MY_QUIZZES, READ);
+        put("GET", ApiEndpoints.GET_QUIZ_DETAIL, READ);
+        put("GET", ApiEndpoints.MY_QUIZ_HISTORY, READ);
+        put("GET", ApiEndpoints.FEEDBACK_BY_QUIZ, READ);
+        put("GET", ApiEndpoints.FEEDBACK_STATS, READ);
+        put("GET", ApiEndpoints.FEEDBACK_MY, READ);
+    }
+
+    public final int connectTimeoutSeconds;
+    public final int readTimeoutSeconds;
+    public final int writeTimeoutSeconds;
+    /** Total time budget across all attempts */
+    public final int deadlineSeconds;
+    /** Extra attempts after the first one */
+    public final int maxRetries;
+
+    public RequestPolicy(int connectTimeoutSeconds, int readTimeoutSeconds, int writeTimeoutSeconds,
+                         int deadlineSeconds, int maxRetries) {
+        this.connectTimeoutSeconds = connectTimeoutSeconds;
+        this.readTimeoutSeconds = readTimeoutSeconds;
+        this.writeTimeoutSeconds = writeTimeoutSeconds;
+        this.deadlineSeconds = deadlineSeconds;
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Policy for a request; unlisted GETs are treated as reads, everything else as writes
+     */
+    public static RequestPolicy forRequest(Request request) {
+        String method = request.method();
+        RequestPolicy policy = POLICIES.get(method + " " + CallTimingListener.endpointOf(request));
+        if (policy != null) {
+            return policy;
+        }
+        return "GET".equals(method) ? READ : WRITE;
+    }
+
+    private static void put(String method, String endpoint, RequestPolicy policy) {
+        POLICIES.put(method + " " + endpoint, policy);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.learnquiz_fe.data.network;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Applies the {@link RequestPolicy} of each endpoint
+ * - per-call connect/read/write timeouts
+ * - an overall deadline: attempts stop and timeouts shrink once the budget is spent
+ * - for reads only: retries on network errors and 502/503/504 with exponential backoff + full jitter
+ *
+ * The client-wide callTimeout (ApiEndpoints.CALL_TIMEOUT) remains the hard upper bound.
+ */
+public class RequestPolicyInterceptor implements Interceptor {
+
+    private static final String TAG = "RequestPolicy";
+
+    private static final long BASE_BACKOFF_MS = 300;
+    private static final long MAX_BACKOFF_MS = 3000;
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        RequestPolicy policy = RequestPolicy.forRequest(request);
+
+        long deadlineMs = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(policy.deadlineSeconds);
+        int attempt = 0;
+
+        while (true) {
+            long remainingMs = deadlineMs - System.currentTimeMillis();
+            if (remainingMs <= 0) {
+                throw new InterruptedIOException("Deadline of " + policy.deadlineSeconds
+                        + "s exceeded for " + request.url().encodedPath());
+            }
+
+            Chain attemptChain = chain
+                    .withConnectTimeout(timeoutMs(policy.connectTimeoutSeconds, remainingMs), TimeUnit.MILLISECONDS)
+                    .withReadTimeout(timeoutMs(policy.readTimeoutSeconds, remainingMs), TimeUnit.MILLISECONDS)
+                    .withWriteTimeout(timeoutMs(policy.writeTimeoutSeconds, remainingMs), TimeUnit.MILLISECONDS);
+
+            Response response;
+            try {
+                response = attemptChain.proceed(request);
+            } catch (IOException e) {
+                if (!canRetry(chain, policy, attempt, deadlineMs)) {
+                    throw e;
+                }
+                Log.d(TAG, "Retrying " + request.url().encodedPath() + " after " + e);
+                backoff(attempt++);
+                continue;
+            }
+
+            if (isRetryableStatus(response.code()) && canRetry(chain, policy, attempt, deadlineMs)) {
+                Log.d(TAG, "Retrying " + request.url().encodedPath() + " after HTTP " + response.code());
+                response.close();
+                backoff(attempt++);
+                continue;
+            }
+            return response;
+        }
+    }
+
+    private static boolean canRetry(Chain chain, RequestPolicy policy, int attempt, long deadlineMs) {
+        return attempt < policy.maxRetries
+                && !chain.call().isCanceled()
+                && System.currentTimeMillis() + backoffCeiling(attempt) < deadlineMs;
+    }
+
+    private static boolean isRetryableStatus(int code) {
+        return code == 502 || code == 503 || code == 504;
+    }
+
+    /**
+     * Full jitter: sleep a random time in [0, min(max, base * 2^attempt)]
+     */
+    private static void backoff(int attempt) throws InterruptedIOException {
+        long sleepMs = ThreadLocalRandom.current().nextLong(backoffCeiling(attempt) + 1);
+        try {
+            Thread.sleep(sleepMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during retry backoff");
+        }
+    }
+
+    private static long backoffCeiling(int attempt) {
+        return Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << attempt);
+    }
+
+    /**
+     * Timeout in ms, never longer than what is left of the deadline
+     */
+    private static int timeoutMs(int timeoutSeconds, long remainingMs) {
+        return (int) Math.min(TimeUnit.SECONDS.toMillis(timeoutSeconds), remainingMs);
+    }
+}
@@ -3,17 +3,26 @@ package com.example.learnquiz_fe.data.network;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import com.example.learnquiz_fe.BuildConfig;
 import com.example.learnquiz_fe.R;
 import com.example.learnquiz_fe.data.model.auth.AuthResponse;
 import com.example.learnquiz_fe.ui.adapter.DateTypeAdapter;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import java.io.File;
+import java.io.IOException;
 import java.util.Date;
 
 import java.util.concurrent.TimeUnit;
 
+import okhttp3.Cache;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
+import okhttp3.Request;
+import okhttp3.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
@@ -25,38 +34,72 @@ public class RetrofitClient {
 
     private static RetrofitClient instance;
     private final Retrofit retrofit;
+    private final OkHttpClient okHttpClient;
     private final ApiService apiService;
     private final Context context;
+    private final Cache cache;
+    private final SessionTokenStore tokenStore;
 
     // START: Thêm hằng số cho SharedPreferences
     private static final String PREFS_NAME = "app_prefs";
     private static final String KEY_AUTH_TOKEN = "auth_token";
+    private static final String KEY_REFRESH_TOKEN = "refresh_token";
     private static final String KEY_USER_ID = "user_id";
     private static final String KEY_USERNAME = "user_name";
     private static final String KEY_EMAIL = "user_email";
     private static final String KEY_ROLE = "user_role";
     private static final String KEY_PREMIUM = "user_premium";
 
+    // Connection pool / dispatcher sizing
+    // Screens fire at most ~4 calls at once (detail + feedback + stats + list); over HTTP/2
+    // they share one connection, the extra idle slots cover HTTP/1.1 fallback
+    private static final int MAX_IDLE_CONNECTIONS = 4;
+    private static final int KEEP_ALIVE_MINUTES = 5;
+    private static final int MAX_REQUESTS_PER_HOST = 6;
+
+    // Largest request/response body written to logcat in debug builds
+    private static final long LOG_BODY_MAX_BYTES = 4 * 1024;
+
     /**
      * Private constructor for singleton pattern
      */
     private RetrofitClient(Context context) {
         this.context = context.getApplicationContext();
+        this.tokenStore = SessionTokenStore.getInstance(this.context);
 
         // Create Gson with custom date format
         Gson gson = new GsonBuilder()
                 .registerTypeAdapter(Date.class, new DateTypeAdapter())
                 .create();
 
+        // Disk cache for GET responses (freshness + ETag revalidation)
+        cache = new Cache(new File(this.context.getCacheDir(), "http_cache"),
+                CachePolicyInterceptor.CACHE_SIZE_BYTES);
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
 //         Create OkHttp client with interceptors
-        OkHttpClient okHttpClient = new OkHttpClient.Builder()
+        okHttpClient = new OkHttpClient.Builder()
+                .cache(cache)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .dispatcher(dispatcher)
                 .connectTimeout(ApiEndpoints.CONNECT_TIMEOUT, TimeUnit.SECONDS)
                 .readTimeout(ApiEndpoints.READ_TIMEOUT, TimeUnit.SECONDS)
                 .writeTimeout(ApiEndpoints.WRITE_TIMEOUT, TimeUnit.SECONDS)
+                .callTimeout(ApiEndpoints.CALL_TIMEOUT, TimeUnit.SECONDS)
                 .hostnameVerifier(((hostname, session) -> true)) // Accept all hostnames (for dev with self-signed certs)
-                .retryOnConnectionFailure(true)
-                .addInterceptor(new AuthInterceptor(context))
+                // No silent replay: generateQuiz / payment must not be sent twice,
+                // idempotent reads are retried by RequestPolicyInterceptor instead
+                .retryOnConnectionFailure(false)
+                .addInterceptor(new RequestPolicyInterceptor())
+                .addInterceptor(new AuthInterceptor(tokenStore))
+                .authenticator(new TokenAuthenticator(tokenStore))
                 .addInterceptor(createLoggingInterceptor())
+                // After logging, so debug logs still show the plain JSON
+                .addInterceptor(new GzipRequestInterceptor())
+                .addNetworkInterceptor(new CachePolicyInterceptor(cache))
+                .eventListenerFactory(CallTimingListener.FACTORY) // Per-call phase timings -> NetworkMetrics
                 .build();
 //        OkHttpClient okHttpClient = createSecureClient(this.context);
 
@@ -81,6 +124,46 @@ public class RetrofitClient {
         return instance;
     }
 
+    /**
+     * Build the client and open a connection to the API host in the background
+     * Called at app launch so the first real request skips DNS + TCP + TLS
+     */
+    public static void prewarm(Context context) {
+        Context appContext = context.getApplicationContext();
+        new Thread(() -> getInstance(appContext).warmUpConnection(), "api-prewarm").start();
+    }
+
+    /**
+     * HEAD request to BASE_URL that only leaves a live connection in the pool
+     * Uses a bare client (same pool and dispatcher, no interceptors/cache) so it is
+     * not logged, cached, authenticated or retried
+     */
+    private void warmUpConnection() {
+        OkHttpClient.Builder builder = okHttpClient.newBuilder().cache(null);
+        builder.interceptors().clear();
+        builder.networkInterceptors().clear();
+        OkHttpClient warmClient = builder
+                .eventListener(okhttp3.EventListener.NONE) // Keep warm-up out of NetworkMetrics
+                .build();
+
+        Request request = new Request.Builder()
+                .url(ApiEndpoints.BASE_URL)
+                .head()
+                .build();
+        warmClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                // Any status is fine, only the connection matters
+                response.close();
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                android.util.Log.d("RetrofitClient", "Connection pre-warm failed: " + e.getMessage());
+            }
+        });
+    }
+
     /**
      * Get API service
      */
@@ -88,33 +171,46 @@ public class RetrofitClient {
         return apiService;
     }
 
+    /**
+     * Drop all cached responses (e.g. on logout, so the next user never sees them)
+     */
+    public void clearHttpCache() {
+        new Thread(() -> {
+            try {
+                cache.evictAll();
+            } catch (IOException e) {
+                android.util.Log.w("RetrofitClient", "Failed to clear HTTP cache", e);
+            }
+        }).start();
+    }
+
     /**
      * Create logging interceptor for debugging
+     * Debug builds log small text bodies (capped), release builds log nothing
      */
-    private HttpLoggingInterceptor createLoggingInterceptor() {
-        HttpLoggingInterceptor interceptor = new HttpLoggingInterceptor();
-        // Set level to BODY for development, NONE for production
-        interceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-        return interceptor;
+    private BoundedLoggingInterceptor createLoggingInterceptor() {
+        if (BuildConfig.DEBUG) {
+            return new BoundedLoggingInterceptor(BoundedLoggingInterceptor.Level.BODY, LOG_BODY_MAX_BYTES);
+        }
+        return new BoundedLoggingInterceptor(BoundedLoggingInterceptor.Level.NONE, 0);
     }
 
     /**
      * Auth interceptor to add Authorization header
+     * Token comes from the in-memory SessionTokenStore (no SharedPreferences read per request)
      */
     private static class AuthInterceptor implements okhttp3.Interceptor {
-        private final Context context;
+        private final SessionTokenStore tokenStore;
 
-        public AuthInterceptor(Context context) {
-            this.context = context;
+        public AuthInterceptor(SessionTokenStore tokenStore) {
+            this.tokenStore = tokenStore;
         }
 
         @Override
         public okhttp3.Response intercept(Chain chain) throws java.io.IOException {
             okhttp3.Request original = chain.request();
 
-            // Get token from SharedPreferences
-            SharedPreferences prefs = context.getSharedPreferences("app_prefs", Context.MODE_PRIVATE);
-            String token = prefs.getString("auth_token", null);
+            String token = tokenStore.getAccessToken();
 
             // Add Authorization header if token exists
             okhttp3.Request.Builder requestBuilder = original.newBuilder();
@@ -137,8 +233,14 @@ public class RetrofitClient {
      * Update authentication token
      */
     public void setAuthToken(String token) {
-        SharedPreferences prefs = context.getSharedPreferences("app_prefs", Context.MODE_PRIVATE);
-        prefs.edit().putString("auth_token", token).apply();
+        tokenStore.setAccessToken(token);
+    }
+
+    /**
+     * Update refresh token (used by TokenAuthenticator when the access token expires)
+     */
+    public void setRefreshToken(String token) {
+        tokenStore.setRefreshToken(token);
     }
     public void saveAuthData(AuthResponse authResponse) {
         if (authResponse == null) return;
@@ -159,8 +261,7 @@ public class RetrofitClient {
      * Clear authentication token
      */
     public void clearAuthToken() {
-        SharedPreferences prefs = context.getSharedPreferences("app_prefs", Context.MODE_PRIVATE);
-        prefs.edit().remove("auth_token").apply();
+        tokenStore.clear();
     }
 
     private SharedPreferences getPrefs() {
@@ -168,9 +269,11 @@ public class RetrofitClient {
     }
 
     public void clearAuthData() {
+        clearHttpCache();
         SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
         SharedPreferences.Editor editor = prefs.edit();
         editor.remove(KEY_AUTH_TOKEN);
+        editor.remove(KEY_REFRESH_TOKEN);
         editor.remove(KEY_USER_ID);
         editor.remove(KEY_USERNAME);
         editor.remove(KEY_EMAIL);
@@ -217,8 +320,7 @@ public class RetrofitClient {
      * Get current authentication token
      */
     public String getAuthToken() {
-        SharedPreferences prefs = context.getSharedPreferences("app_prefs", Context.MODE_PRIVATE);
-        return prefs.getString("auth_token", null);
+        return tokenStore.getAccessToken();
     }
 
     public boolean getIsPremium() {
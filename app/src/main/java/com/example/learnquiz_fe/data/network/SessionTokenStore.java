@@ -0,0 +1,106 @@
+package com.example.learnquiz_fe.data.network;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * In-memory holder for the session tokens
+ * Loaded once from SharedPreferences and kept in sync by a preference listener,
+ * so request interceptors never hit SharedPreferences on the network path
+ */
+public class SessionTokenStore {
+
+    static final String PREFS_NAME = "app_prefs";
+    static final String KEY_AUTH_TOKEN = "auth_token";
+    static final String KEY_REFRESH_TOKEN = "refresh_token";
+
+    private static SessionTokenStore instance;
+
+    private final SharedPreferences prefs;
+    private volatile String accessToken;
+    private volatile String refreshToken;
+
+    // Kept as a field: SharedPreferences only holds listeners weakly
+    private final SharedPreferences.OnSharedPreferenceChangeListener listener = (sharedPrefs, key) -> {
+        if (key == null) {
+            // clear() was called
+            reload();
+        } else if (KEY_AUTH_TOKEN.equals(key)) {
+            accessToken = sharedPrefs.getString(KEY_AUTH_TOKEN, null);
+        } else if (KEY_REFRESH_TOKEN.equals(key)) {
+            refreshToken = sharedPrefs.getString(KEY_REFRESH_TOKEN, null);
+        }
+    };
+
+    private SessionTokenStore(Context context) {
+        this.prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        reload();
+        prefs.registerOnSharedPreferenceChangeListener(listener);
+    }
+
+    /**
+     * Get singleton instance
+     */
+    public static synchronized SessionTokenStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new SessionTokenStore(context);
+        }
+        return instance;
+    }
+
+    private void reload() {
+        accessToken = prefs.getString(KEY_AUTH_TOKEN, null);
+        refreshToken = prefs.getString(KEY_REFRESH_TOKEN, null);
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public boolean hasAccessToken() {
+        return accessToken != null && !accessToken.isEmpty();
+    }
+
+    /**
+     * Update access token in memory immediately and persist it
+     */
+    public void setAccessToken(String token) {
+        accessToken = token;
+        prefs.edit().putString(KEY_AUTH_TOKEN, token).apply();
+    }
+
+    /**
+     * Update refresh token in memory immediately and persist it
+     */
+    public void setRefreshToken(String token) {
+        refreshToken = token;
+        prefs.edit().putString(KEY_REFRESH_TOKEN, token).apply();
+    }
+
+    /**
+     * Store both tokens after a refresh
+     * Refresh token is kept if the server did not rotate it
+     */
+    public void updateTokens(String newAccessToken, String newRefreshToken) {
+        accessToken = newAccessToken;
+        SharedPreferences.Editor editor = prefs.edit().putString(KEY_AUTH_TOKEN, newAccessToken);
+        if (newRefreshToken != null && !newRefreshToken.isEmpty()) {
+            refreshToken = newRefreshToken;
+            editor.putString(KEY_REFRESH_TOKEN, newRefreshToken);
+        }
+        editor.apply();
+    }
+
+    /**
+     * Forget both tokens (logout or failed refresh)
+     */
+    public void clear() {
+        accessToken = null;
+        refreshToken = null;
+        prefs.edit().remove(KEY_AUTH_TOKEN).remove(KEY_REFRESH_TOKEN).apply();
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.learnquiz_fe.data.network;
+
+import android.content.ContentResolver;
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.learnquiz_fe.data.model.camera.CapturedImage;
+import com.example.learnquiz_fe.data.model.quiz.GenerateQuizRequest;
+import com.example.learnquiz_fe.utils.Base64StreamEncoder;
+import com.example.learnquiz_fe.utils.CancellationToken;
+import com.example.learnquiz_fe.utils.Constants;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * Request body for quiz generation that writes the JSON envelope directly to the socket
+ * Produces the same JSON as {@link GenerateQuizRequest}, but image payloads are never
+ * collected into a List<String> or a Gson buffer:
+ * - images whose data URI was prepared in the background are copied from that file
+ * - other processed photos are Base64-encoded on the fly from their JPEG/WebP payload file
+ * - other documents (PDF) are Base64-encoded on the fly from their content URI
+ * Encoding stops at the next chunk once the optional {@link CancellationToken} is cancelled.
+ */
+public class StreamingQuizRequestBody extends RequestBody {
+
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    private final ContentResolver contentResolver;
+    private final GenerateQuizRequest settings;
+    private final List<CapturedImage> images;
+    private final CancellationToken token;
+    private final Gson gson = new Gson();
+
+    /**
+     * @param context Any context (only the content resolver is kept)
+     * @param settings Quiz settings; its images list is ignored
+     * @param images Session images to upload, in order
+     * @param token Cancellation token, or null
+     */
+    public StreamingQuizRequestBody(Context context, GenerateQuizRequest settings,
+                                    List<CapturedImage> images, @Nullable CancellationToken token) {
+        this.contentResolver = context.getApplicationContext().getContentResolver();
+        this.settings = settings;
+        this.images = new ArrayList<>(images);
+        this.token = token;
+    }
+
+    /**
+     * Validate settings and image count (1-10), same rules as {@link GenerateQuizRequest#isValid()}
+     */
+    public boolean isValid() {
+        if (images.isEmpty() || images.size() > 10 || !settings.isValidSettings()) {
+            return false;
+        }
+        for (CapturedImage image : images) {
+            if (!image.isReadyForUpload()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getImageCount() {
+        return images.size();
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+
+    @Override
+    public long contentLength() {
+        // Unknown up front: documents are encoded while writing, send chunked
+        return -1;
+    }
+
+    /**
+     * Marked one-shot so interceptors (logging at BODY level) never copy the payload
+     * into memory, and so a non-idempotent generation is not silently replayed
+     */
+    @Override
+    public boolean isOneShot() {
+        return true;
+    }
+
+    @Override
+    public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        sink.writeUtf8("{\"images\":[");
+        for (int i = 0; i < images.size(); i++) {
+            if (i > 0) {
+                sink.writeByte(',');
+            }
+            writeImage(sink, images.get(i));
+        }
+        sink.writeByte(']');
+
+        // Remaining settings go through Gson so field names stay in sync with the DTO
+        JsonObject fields = gson.toJsonTree(settings).getAsJsonObject();
+        fields.remove("images");
+        for (Map.Entry<String, JsonElement> field : fields.entrySet()) {
+            sink.writeByte(',');
+            sink.writeUtf8(gson.toJson(field.getKey()));
+            sink.writeByte(':');
+            sink.writeUtf8(gson.toJson(field.getValue()));
+        }
+        sink.writeByte('}');
+    }
+
+    /**
+     * Write one image as a JSON string value
+     * Data URIs only contain Base64 characters, so no JSON escaping is needed
+     */
+    private void writeImage(BufferedSink sink, CapturedImage image) throws IOException {
+        sink.writeByte('"');
+        File encoded = image.getEncodedFile();
+        if (encoded != null && encoded.isFile()) {
+            if (token != null) {
+                token.throwIfCancelled();
+            }
+            try (Source source = Okio.source(encoded)) {
+                sink.writeAll(source);
+            }
+        } else if (image.isDocument()) {
+            sink.writeUtf8("data:" + image.getMimeType() + ";base64,");
+            InputStream inputStream = contentResolver.openInputStream(image.getImageUri());
+            if (inputStream == null) {
+                throw new FileNotFoundException("Cannot open " + image.getImageUri());
+            }
+            // Same per-file cap as the background pre-encode (documents not prepared in time)
+            CancellationToken pdfToken =
+                    CancellationToken.withTimeout(Constants.PDF_ENCODING_TIMEOUT_MS, token);
+            try {
+                Base64StreamEncoder.encode(inputStream, sink.outputStream(), pdfToken);
+            } catch (CancellationToken.CancelledException e) {
+                if (pdfToken.isTimedOut()) {
+                    throw new IOException("Encoding " + image.getImageUri() + " timed out after "
+                            + Constants.PDF_ENCODING_TIMEOUT_MS + " ms");
+                }
+                throw e;
+            } finally {
+                pdfToken.release();
+            }
+        } else {
+            sink.writeUtf8("data:" + image.getMimeType() + ";base64,");
+            // openPayload() throws if the image was never processed
+            Base64StreamEncoder.encode(image.openPayload(), sink.outputStream(), token);
+        }
+        sink.writeByte('"');
+    }
+}
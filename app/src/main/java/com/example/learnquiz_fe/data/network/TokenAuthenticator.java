@@ -0,0 +1,107 @@
+package com.example.learnquiz_fe.data.network;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.learnquiz_fe.data.model.auth.AuthResponse;
+import com.example.learnquiz_fe.data.model.auth.RefreshTokenRequest;
+import com.example.learnquiz_fe.data.model.quiz.ApiResponse;
+
+import java.io.IOException;
+
+import okhttp3.Authenticator;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.Route;
+
+/**
+ * Refreshes the access token when a request fails with 401
+ * Refresh is single-flight: when several requests fail at once, the first one calls
+ * api/auth/refresh while the others wait on the lock, then all of them are replayed
+ * with the new token.
+ */
+public class TokenAuthenticator implements Authenticator {
+
+    private static final String TAG = "TokenAuthenticator";
+    private static final String BEARER = "Bearer ";
+
+    private final SessionTokenStore tokenStore;
+    private final Object refreshLock = new Object();
+
+    public TokenAuthenticator(SessionTokenStore tokenStore) {
+        this.tokenStore = tokenStore;
+    }
+
+    @Nullable
+    @Override
+    public Request authenticate(@Nullable Route route, @NonNull Response response) throws IOException {
+        Request failedRequest = response.request();
+        String failedAuth = failedRequest.header("Authorization");
+
+        // Nothing to refresh: anonymous call, the refresh call itself, or already retried
+        if (failedAuth == null
+                || failedRequest.url().encodedPath().endsWith(ApiEndpoints.REFRESH_TOKEN)
+                || response.priorResponse() != null) {
+            return null;
+        }
+
+        synchronized (refreshLock) {
+            String currentToken = tokenStore.getAccessToken();
+
+            // Another request already refreshed while this one was waiting
+            if (currentToken != null && !failedAuth.equals(BEARER + currentToken)) {
+                return withToken(failedRequest, currentToken);
+            }
+
+            String refreshToken = tokenStore.getRefreshToken();
+            if (refreshToken == null || refreshToken.isEmpty()) {
+                return null;
+            }
+
+            String newToken = refresh(refreshToken);
+            if (newToken == null) {
+                return null;
+            }
+            return withToken(failedRequest, newToken);
+        }
+    }
+
+    /**
+     * Call api/auth/refresh synchronously (already on an OkHttp worker thread)
+     * @return New access token or null if refresh failed
+     */
+    private String refresh(String refreshToken) {
+        try {
+            retrofit2.Response<ApiResponse<AuthResponse>> refreshResponse = RetrofitClient.getInstance(null)
+                    .getApiService()
+                    .refreshToken(new RefreshTokenRequest(refreshToken))
+                    .execute();
+
+            ApiResponse<AuthResponse> body = refreshResponse.body();
+            if (refreshResponse.isSuccessful() && body != null && body.isSuccess()
+                    && body.getData() != null && body.getData().getAccessToken() != null) {
+                AuthResponse authData = body.getData();
+                tokenStore.updateTokens(authData.getAccessToken(), authData.getRefreshToken());
+                Log.d(TAG, "Access token refreshed");
+                return authData.getAccessToken();
+            }
+
+            Log.w(TAG, "Token refresh rejected: HTTP " + refreshResponse.code());
+            if (refreshResponse.code() == 400 || refreshResponse.code() == 401) {
+                // Refresh token is no longer valid, user has to log in again
+                tokenStore.clear();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Token refresh failed", e);
+        }
+        return null;
+    }
+
+    private Request withToken(Request request, String token) {
+        return request.newBuilder()
+                .header("Authorization", BEARER + token)
+                .build();
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.learnquiz_fe.data.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.example.learnquiz_fe.data.model.quiz.CompiledQuiz;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only journal of one quiz attempt, used to resume after process death
+ * Every answer, question change and paused timer is one fixed-size 13-byte record
+ * (type, question, value). Records are collected in memory on the calling (main) thread
+ * and appended to the file in batches on a background thread: after FLUSH_RECORDS
+ * records, FLUSH_DELAY_MS after the first pending one, or on {@link #flush()}.
+ * Answering a question therefore never touches the disk on the UI thread.
+ *
+ * {@link #restore} replays the records into a {@link Snapshot}; a torn last record
+ * (process killed mid-write) is ignored and cut off, so records appended after a resume
+ * stay aligned.
+ */
+public class AttemptJournal {
+
+    private static final String TAG = "AttemptJournal";
+
+    private static final String JOURNAL_DIR = "attempt_journal";
+    private static final String SUFFIX = ".journal";
+
+    private static final byte START = 1;     // question = question count, value = start time
+    private static final byte POSITION = 2;  // question = current question
+    private static final byte ANSWER = 3;    // value = selection (see CompiledQuiz)
+    private static final byte TIMER = 4;     // value = remaining ms of the question's timer
+    private static final int RECORD_SIZE = 1 + 4 + 8;
+
+    private static final int FLUSH_RECORDS = 8;
+    private static final long FLUSH_DELAY_MS = 1000;
+
+    // One writer thread for all journals keeps appends and deletes in order
+    private static final ScheduledExecutorService io = Executors.newSingleThreadScheduledExecutor();
+
+    private final String key;
+    private final File file;
+    // Start time of the attempt, 0 until started or restored
+    private long startedAt;
+    private ByteBuffer pending = newBuffer();
+    private int pendingRecords;
+    private ScheduledFuture<?> scheduledFlush;
+
+    @VisibleForTesting
+    AttemptJournal(String key, File file) {
+        this.key = key;
+        this.file = file;
+    }
+
+    /**
+     * Journal for the quiz stored under key in QuizSessionStore
+     */
+    public static AttemptJournal open(Context context, String key) {
+        File dir = new File(context.getFilesDir(), JOURNAL_DIR);
+        return new AttemptJournal(key, new File(dir, key + SUFFIX));
+    }
+
+    /**
+     * Delete every journal (logout: an interrupted attempt must not resume for the next user)
+     */
+    public static void clearAll(Context context) {
+        File dir = new File(context.getFilesDir(), JOURNAL_DIR);
+        io.execute(() -> {
+            File[] files = dir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+        });
+    }
+
+    /**
+     * State rebuilt from the journal
+     */
+    public static class Snapshot {
+        /** One selection per question (see CompiledQuiz) */
+        public int[] selections;
+        public int currentIndex;
+        /** Remaining time of the current question's timer, -1 if not recorded */
+        public long remainingMs = -1;
+
+        public int getAnsweredCount() {
+            int answered = 0;
+            for (int selection : selections) {
+                if (CompiledQuiz.isAnswered(selection)) {
+                    answered++;
+                }
+            }
+            return answered;
+        }
+    }
+
+    /**
+     * Replay the journal (reads the file on the calling thread; it is a few hundred bytes)
+     * @return The interrupted attempt, or null if there is none for a quiz of this size
+     */
+    public Snapshot restore(int questionCount) {
+        if (!file.isFile()) {
+            return null;
+        }
+        long length = file.length();
+        if (length % RECORD_SIZE != 0) {
+            // Drop the partial record before anything is appended after it (same thread as appends)
+            long aligned = length / RECORD_SIZE * RECORD_SIZE;
+            Log.w(TAG, "Truncating torn record of " + file.getName() + " at " + aligned);
+            io.execute(() -> truncate(aligned));
+        }
+        Snapshot snapshot = null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                byte type = in.readByte();
+                int question = in.readInt();
+                long value = in.readLong();
+                if (type == START) {
+                    if (question != questionCount) {
+                        Log.w(TAG, "Journal is for " + question + " questions, quiz has " + questionCount);
+                        return null;
+                    }
+                    startedAt = value;
+                    snapshot = new Snapshot();
+                    snapshot.selections = new int[questionCount];
+                    Arrays.fill(snapshot.selections, CompiledQuiz.UNANSWERED);
+                    continue;
+                }
+                if (snapshot == null || question < 0 || question >= questionCount) {
+                    continue;
+                }
+                if (type == POSITION) {
+                    snapshot.currentIndex = question;
+                    snapshot.remainingMs = -1;
+                } else if (type == ANSWER) {
+                    snapshot.selections[question] = (int) value;
+                } else if (type == TIMER && question == snapshot.currentIndex) {
+                    snapshot.remainingMs = value;
+                }
+            }
+        } catch (EOFException e) {
+            // End of journal (or a torn last record)
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot read " + file.getName(), e);
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Begin a new attempt, replacing any previous journal
+     */
+    public synchronized void start(int questionCount) {
+        pending = newBuffer();
+        pendingRecords = 0;
+        io.execute(file::delete);
+        startedAt = System.currentTimeMillis();
+        append(START, questionCount, startedAt);
+        flush();
+    }
+
+    /**
+     * Stable id of the current attempt (same after a resume), used to de-duplicate submissions
+     */
+    public synchronized String getAttemptId() {
+        return key + "-" + startedAt;
+    }
+
+    public synchronized void recordPosition(int question) {
+        append(POSITION, question, 0);
+    }
+
+    public synchronized void recordAnswer(int question, int selection) {
+        append(ANSWER, question, selection);
+    }
+
+    public synchronized void recordTimer(int question, long remainingMs) {
+        append(TIMER, question, remainingMs);
+    }
+
+    /**
+     * Write pending records now (still on the background thread)
+     */
+    public synchronized void flush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        if (pendingRecords == 0) {
+            return;
+        }
+        byte[] batch = new byte[pending.position()];
+        pending.flip();
+        pending.get(batch);
+        pending.clear();
+        pendingRecords = 0;
+        io.execute(() -> write(batch));
+    }
+
+    /**
+     * Drop the journal (attempt finished or abandoned)
+     */
+    public synchronized void discard() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        pending.clear();
+        pendingRecords = 0;
+        io.execute(file::delete);
+    }
+
+    private void append(byte type, int question, long value) {
+        if (pending.remaining() < RECORD_SIZE) {
+            flush();
+        }
+        pending.put(type).putInt(question).putLong(value);
+        pendingRecords++;
+        if (pendingRecords >= FLUSH_RECORDS) {
+            flush();
+        } else if (scheduledFlush == null) {
+            scheduledFlush = io.schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Block until every append, truncate and delete queued so far has run
+     */
+    @VisibleForTesting
+    static void awaitWrites() throws Exception {
+        io.submit(() -> { }).get();
+    }
+
+    private void write(byte[] batch) {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            Log.w(TAG, "Cannot create " + dir);
+            return;
+        }
+        try (OutputStream out = new FileOutputStream(file, true)) {
+            out.write(batch);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot append to " + file.getName(), e);
+        }
+    }
+
+    private void truncate(long length) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (raf.length() > length) {
+                raf.setLength(length);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot truncate " + file.getName(), e);
+        }
+    }
+
+    private static ByteBuffer newBuffer() {
+        return ByteBuffer.allocate(FLUSH_RECORDS * RECORD_SIZE);
+    }
+}
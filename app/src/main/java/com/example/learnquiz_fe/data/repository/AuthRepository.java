@@ -24,9 +24,11 @@ import retrofit2.Response;
 
 public class AuthRepository {
 
+    private final Context context;
     private final ApiService apiService;
 
     public AuthRepository(Context context) {
+        this.context = context.getApplicationContext();
         this.apiService = RetrofitClient.getInstance(context).getApiService();
     }
 
@@ -52,6 +54,8 @@ public class AuthRepository {
                         if (googleAuthData.getAccessToken() != null) {
                             RetrofitClient.getInstance(null)
                                     .setAuthToken(googleAuthData.getAccessToken());
+                            RetrofitClient.getInstance(null)
+                                    .setRefreshToken(googleAuthData.getRefreshToken());
                             // Create an AuthResponse object to save user data, assuming it has a suitable constructor or setters
                             AuthResponse authData = new AuthResponse(
                                     googleAuthData.getUserResponseDto().getId(),
@@ -100,6 +104,8 @@ public class AuthRepository {
                         if (authData.getAccessToken() != null) {
                             RetrofitClient.getInstance(null)
                                     .setAuthToken(authData.getAccessToken());
+                            RetrofitClient.getInstance(null)
+                                    .setRefreshToken(authData.getRefreshToken());
                             RetrofitClient.getInstance(null).saveAuthData(authData);
                         }
                         liveData.postValue(apiResponse);
@@ -137,6 +143,7 @@ public class AuthRepository {
                         // Save token and user data upon successful registration
                         if (authData.getAccessToken() != null) {
                             RetrofitClient.getInstance(null).setAuthToken(authData.getAccessToken());
+                            RetrofitClient.getInstance(null).setRefreshToken(authData.getRefreshToken());
                             RetrofitClient.getInstance(null).saveAuthData(authData);
                         }
                         liveData.postValue(apiResponse);
@@ -195,6 +202,11 @@ public class AuthRepository {
     {
         RetrofitClient.getInstance(null).clearAuthToken();
         RetrofitClient.getInstance(null).clearAuthData();
+        // Cached quiz details belong to the user who is logging out
+        QuizRepository.clearQuizDetailCache();
+        // Quizzes and attempts kept for resuming after process death
+        QuizSessionStore.getInstance(context).clear();
+        AttemptJournal.clearAll(context);
         return null;
     }
 }
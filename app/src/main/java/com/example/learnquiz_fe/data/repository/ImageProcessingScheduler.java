@@ -0,0 +1,122 @@
+package com.example.learnquiz_fe.data.repository;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.util.Log;
+
+import com.example.learnquiz_fe.data.model.camera.CapturedImage;
+import com.example.learnquiz_fe.utils.BitmapPool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs image decode/crop/encode jobs in parallel under a bitmap memory budget
+ * Each job reserves its estimated bitmap bytes before it starts, so the number of
+ * images being decoded at once adapts to their size: many small photos run side by side,
+ * a 50 MP photo may run alone. The budget is a fraction of the app heap
+ * ({@link ActivityManager#getMemoryClass()}).
+ *
+ * Results are delivered in submission order, progress as each job finishes.
+ */
+public class ImageProcessingScheduler {
+
+    private static final String TAG = "ImageScheduler";
+
+    // Share of the app heap that in-flight bitmaps may use
+    private static final int HEAP_FRACTION = 3;
+    // Workers beyond this bring no gain, decode is memory-bandwidth bound
+    private static final int MAX_WORKERS = 4;
+    // Semaphore permits are KB so budgets above 2 GB still fit in an int
+    private static final int KB = 1024;
+
+    private static ImageProcessingScheduler instance;
+
+    private final ExecutorService workers;
+    private final Semaphore memoryBudget;
+    private final int budgetKb;
+
+    private ImageProcessingScheduler(Context context) {
+        ActivityManager activityManager =
+                (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int memoryClassMb = activityManager != null ? activityManager.getMemoryClass() : 64;
+
+        budgetKb = memoryClassMb * KB / HEAP_FRACTION;
+        memoryBudget = new Semaphore(budgetKb, true);
+
+        int workerCount = Math.max(1, Math.min(MAX_WORKERS, Runtime.getRuntime().availableProcessors() - 1));
+        workers = Executors.newFixedThreadPool(workerCount);
+
+        Log.d(TAG, "Bitmap budget " + (budgetKb / KB) + " MB, " + workerCount + " workers");
+    }
+
+    public static synchronized ImageProcessingScheduler getInstance(Context context) {
+        if (instance == null) {
+            instance = new ImageProcessingScheduler(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * One unit of work: estimate its peak bitmap memory, then produce the image
+     */
+    public interface Job {
+        long estimateBytes();
+        CapturedImage run() throws Exception;
+    }
+
+    /**
+     * Run jobs in parallel; callbacks arrive on worker threads
+     */
+    public void submit(List<Job> jobs, ImageRepository.BatchProgressCallback callback) {
+        int total = jobs.size();
+        if (total == 0) {
+            callback.onComplete(new ArrayList<>(), 0);
+            return;
+        }
+
+        CapturedImage[] results = new CapturedImage[total];
+        AtomicInteger finished = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        for (int i = 0; i < total; i++) {
+            final int index = i;
+            final Job job = jobs.get(i);
+            workers.execute(() -> {
+                int permits = 0;
+                try {
+                    permits = reserve(job);
+                    results[index] = job.run();
+                } catch (Exception | OutOfMemoryError e) {
+                    Log.e(TAG, "Job " + index + " failed", e);
+                    errors.incrementAndGet();
+                } finally {
+                    memoryBudget.release(permits);
+                }
+
+                int done = finished.incrementAndGet();
+                callback.onProgress(index, results[index], done, total);
+                if (done == total) {
+                    Log.d(TAG, "Batch of " + total + " done, " + BitmapPool.getInstance());
+                    callback.onComplete(Arrays.asList(results), errors.get());
+                }
+            });
+        }
+    }
+
+    /**
+     * Block until the job's estimated bytes fit in the budget
+     * A job bigger than the whole budget waits for the full budget and runs alone
+     */
+    private int reserve(Job job) throws InterruptedException {
+        long estimateKb = Math.max(1, job.estimateBytes() / KB);
+        int permits = (int) Math.min(estimateKb, budgetKb);
+        memoryBudget.acquire(permits);
+        return permits;
+    }
+}
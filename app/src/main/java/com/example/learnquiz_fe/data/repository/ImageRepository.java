@@ -2,15 +2,24 @@ package com.example.learnquiz_fe.data.repository;
 
 import android.content.Context;
 import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Rect;
 import android.net.Uri;
+import android.util.Log;
 
 import com.example.learnquiz_fe.data.model.camera.CapturedImage;
 import com.example.learnquiz_fe.data.model.camera.ImageRegion;
-import com.example.learnquiz_fe.data.model.camera.PhotoSession;
+import com.example.learnquiz_fe.utils.AdaptiveImageEncoder;
+import com.example.learnquiz_fe.utils.BitmapPool;
 import com.example.learnquiz_fe.utils.Constants;
 import com.example.learnquiz_fe.utils.ImageUtils;
+import com.example.learnquiz_fe.utils.TextPageFilter;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -21,6 +30,20 @@ import java.util.concurrent.Executors;
 public class ImageRepository {
     
     private static final String TAG = "ImageRepository";
+
+    // Max width of processed photos sent for quiz generation
+    private static final int UPLOAD_MAX_WIDTH = 1920;
+    // Processed photo payloads, one file per session image
+    private static final String SESSION_DIR = "photo_session";
+    private static boolean sessionDirPurged = false;
+    // PDF items only allocate their 200x200 icon thumbnail
+    private static final long PDF_THUMBNAIL_BYTES = 200 * 200 * 4;
+    // Everything that changes the encoded bytes; part of the processed-image cache key
+    private static final String ENCODE_PARAMS = "w=" + UPLOAD_MAX_WIDTH
+            + ";budget=" + Constants.UPLOAD_TARGET_BYTES
+            + ";webp=" + Constants.WEBP_UPLOAD_ENABLED
+            + ";q=" + AdaptiveImageEncoder.MIN_QUALITY + "-" + AdaptiveImageEncoder.MAX_QUALITY;
+    private static final String PREFS_NAME = "app_prefs";
     
     private final Context context;
     private final ExecutorService executorService;
@@ -46,51 +69,7 @@ public class ImageRepository {
                             ImageCallback callback) {
         executorService.execute(() -> {
             try {
-                // Load original bitmap
-                Bitmap originalBitmap = ImageUtils.loadBitmapFromUri(context, imageUri);
-                
-                if (originalBitmap == null) {
-                    callback.onError("Failed to load image");
-                    return;
-                }
-                
-                // Crop if region is specified
-                Bitmap processedBitmap = originalBitmap;
-                if (region != null && region.isValid()) {
-                    processedBitmap = ImageUtils.cropBitmap(originalBitmap, region.getScaledBounds());
-                }
-                
-                // Resize for upload (max 1920x1080)
-                Bitmap resizedBitmap = ImageUtils.resizeForUpload(processedBitmap, 1920);
-                
-                // Compress to Base64
-                String base64Data = ImageUtils.compressToBase64(resizedBitmap, 85);
-                
-                // Create thumbnail (larger size for better quality)
-                Bitmap thumbnail = ImageUtils.createThumbnail(processedBitmap, 200);
-                
-                // Create CapturedImage object
-                CapturedImage capturedImage = new CapturedImage(imageUri, fromCamera);
-                capturedImage.setBase64Data(base64Data);
-                capturedImage.setRegion(region);
-                capturedImage.setThumbnail(thumbnail);
-                capturedImage.setOriginalWidth(originalBitmap.getWidth());
-                capturedImage.setOriginalHeight(originalBitmap.getHeight());
-                
-                // Cleanup - IMPORTANT: Don't recycle bitmaps that might be referenced
-                // Only recycle intermediate processing bitmaps, NOT the thumbnail
-                if (resizedBitmap != processedBitmap && resizedBitmap != originalBitmap && resizedBitmap != thumbnail) {
-                    resizedBitmap.recycle();
-                }
-                if (processedBitmap != originalBitmap && processedBitmap != thumbnail) {
-                    processedBitmap.recycle();
-                }
-                if (originalBitmap != thumbnail) {
-                    originalBitmap.recycle();
-                }
-                
-                callback.onSuccess(capturedImage);
-                
+                callback.onSuccess(decodeImage(imageUri, region, fromCamera));
             } catch (IOException e) {
                 callback.onError("Error processing image: " + e.getMessage());
             }
@@ -98,60 +77,232 @@ public class ImageRepository {
     }
 
     /**
-     * Process a document (PDF). For PDFs, encode entire file to base64 for Gemini API.
+     * Decode, crop and encode one photo on the calling thread
+     * Same source bytes + region + encode settings are served from {@link ProcessedImageCache}
+     */
+    private CapturedImage decodeImage(Uri imageUri, ImageRegion region, boolean fromCamera) throws IOException {
+        Rect cropRect = (region != null && region.isValid()) ? region.getScaledBounds() : null;
+        TextPageFilter.Mode mode = getTextPageMode(context);
+
+        String contentKey = contentKeyFor(imageUri, cropRect, ENCODE_PARAMS + ";text=" + mode);
+        ProcessedImageCache cache = ProcessedImageCache.getInstance(context);
+        if (contentKey != null) {
+            ProcessedImageCache.Entry hit = cache.get(contentKey, getSessionDir(context));
+            if (hit != null) {
+                return fromCache(hit, contentKey, imageUri, region, fromCamera);
+            }
+        }
+
+        // Decode only the selected region, subsampled close to the upload size
+        // (the full-resolution photo is never held in memory)
+        ImageUtils.DecodedRegion decoded =
+                ImageUtils.decodeRegion(context, imageUri, cropRect, UPLOAD_MAX_WIDTH);
+
+        if (decoded == null || decoded.bitmap == null) {
+            throw new IOException("Failed to load image");
+        }
+        Bitmap resizedBitmap = decoded.bitmap;
+
+        // Text-page mode: grayscale/threshold before encoding; the size the color image
+        // would have had is measured (counted, not stored) to report the gain
+        long baselineSize = 0;
+        if (mode != TextPageFilter.Mode.NONE) {
+            baselineSize = measureJpegSize(resizedBitmap);
+            Bitmap filtered = TextPageFilter.apply(resizedBitmap, mode);
+            if (filtered != resizedBitmap) {
+                BitmapPool.getInstance().put(resizedBitmap);
+                resizedBitmap = filtered;
+            }
+        }
+
+        // Encode to the per-image byte budget (JPEG, WebP, or PNG for black & white)
+        // into the session directory; only the file handle stays in memory (Base64
+        // happens at send time, and only for the JSON upload path)
+        AdaptiveImageEncoder.Result encoded;
+        try {
+            encoded = AdaptiveImageEncoder.encode(resizedBitmap, Constants.UPLOAD_TARGET_BYTES,
+                    getSessionDir(context), mode == TextPageFilter.Mode.THRESHOLD);
+        } catch (IOException e) {
+            BitmapPool.getInstance().put(resizedBitmap);
+            throw e;
+        }
+
+        // Create thumbnail (larger size for better quality)
+        Bitmap thumbnail = ImageUtils.createThumbnail(resizedBitmap, 200);
+
+        // Create CapturedImage object
+        CapturedImage capturedImage = new CapturedImage(imageUri, fromCamera);
+        capturedImage.setPayloadFile(encoded.file);
+        capturedImage.setMimeType(encoded.mimeType);
+        capturedImage.setEncodeQuality(encoded.quality);
+        capturedImage.setContentKey(contentKey);
+        capturedImage.setBaselineSize(baselineSize);
+        capturedImage.setRegion(region);
+        capturedImage.setThumbnail(thumbnail);
+        capturedImage.setOriginalWidth(decoded.sourceWidth);
+        capturedImage.setOriginalHeight(decoded.sourceHeight);
+
+        if (baselineSize > 0) {
+            Log.d(TAG, "Text page " + mode + ": " + baselineSize + " -> " + encoded.size + " bytes");
+        }
+        if (contentKey != null) {
+            cache.put(contentKey, encoded.file, encoded.mimeType, encoded.quality,
+                    decoded.sourceWidth, decoded.sourceHeight, baselineSize);
+        }
+
+        // Cleanup - IMPORTANT: Don't pool the thumbnail, it is kept by CapturedImage
+        if (resizedBitmap != thumbnail) {
+            BitmapPool.getInstance().put(resizedBitmap);
+        }
+
+        return capturedImage;
+    }
+
+    /**
+     * Build a session image from a cached payload; only the small thumbnail is decoded
+     */
+    private CapturedImage fromCache(ProcessedImageCache.Entry hit, String contentKey, Uri imageUri,
+                                    ImageRegion region, boolean fromCamera) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(hit.file.getPath(), options);
+        options.inSampleSize = ImageUtils.calculateInSampleSize(options, 200, 200);
+        options.inJustDecodeBounds = false;
+        Bitmap sampled = BitmapFactory.decodeFile(hit.file.getPath(), options);
+
+        Bitmap thumbnail = null;
+        if (sampled != null) {
+            thumbnail = ImageUtils.createThumbnail(sampled, 200);
+            if (thumbnail != sampled) {
+                BitmapPool.getInstance().put(sampled);
+            }
+        }
+
+        CapturedImage capturedImage = new CapturedImage(imageUri, fromCamera);
+        capturedImage.setPayloadFile(hit.file);
+        capturedImage.setMimeType(hit.mimeType);
+        capturedImage.setEncodeQuality(hit.quality);
+        capturedImage.setContentKey(contentKey);
+        capturedImage.setBaselineSize(hit.baselineSize);
+        capturedImage.setRegion(region);
+        capturedImage.setThumbnail(thumbnail);
+        capturedImage.setOriginalWidth(hit.sourceWidth);
+        capturedImage.setOriginalHeight(hit.sourceHeight);
+        return capturedImage;
+    }
+
+    /**
+     * JPEG size at the default quality, counted without keeping the bytes
+     */
+    private static long measureJpegSize(Bitmap bitmap) {
+        CountingOutputStream counter = new CountingOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, Constants.JPEG_QUALITY, counter);
+        return counter.count;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    /**
+     * Text-page preprocessing applied to newly processed photos (persisted setting)
+     */
+    public static TextPageFilter.Mode getTextPageMode(Context context) {
+        String value = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+                .getString(Constants.PREF_TEXT_PAGE_MODE, TextPageFilter.Mode.NONE.name());
+        try {
+            return TextPageFilter.Mode.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            return TextPageFilter.Mode.NONE;
+        }
+    }
+
+    public static void setTextPageMode(Context context, TextPageFilter.Mode mode) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+                .edit()
+                .putString(Constants.PREF_TEXT_PAGE_MODE, mode.name())
+                .apply();
+    }
+
+    /**
+     * Content key of a source + region + settings, or null if the source cannot be read
+     * (the item is then simply not cached or de-duplicated)
+     */
+    private String contentKeyFor(Uri uri, Rect region, String params) {
+        try {
+            return ProcessedImageCache.keyFor(ProcessedImageCache.hashSource(context, uri), region, params);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot hash " + uri, e);
+            return null;
+        }
+    }
+
+    /**
+     * Process a document (PDF). The file is Base64-encoded for Gemini API while uploading.
      * Create a PDF icon thumbnail for display in gallery.
      * Maximum file size: 10MB
      */
     public void processDocument(Uri docUri, String mimeType, ImageCallback callback) {
         executorService.execute(() -> {
             try {
-                // Validate that it's a PDF
-                if (mimeType == null || !mimeType.contains("pdf")) {
-                    callback.onError("Only PDF files are supported");
-                    return;
-                }
+                callback.onSuccess(createDocumentImage(docUri, mimeType));
+            } catch (IOException e) {
+                callback.onError(e.getMessage());
+            } catch (Exception e) {
+                callback.onError("Error processing PDF: " + e.getMessage());
+            }
+        });
+    }
 
-                // Check file size (max 10MB)
-                long fileSize = getFileSize(docUri);
-                
-                if (fileSize < 0) {
-                    callback.onError("Cannot read PDF file");
-                    return;
-                }
-                
-                if (fileSize > Constants.MAX_PDF_SIZE_BYTES) {
-                    double sizeMB = fileSize / (1024.0 * 1024.0);
-                    callback.onError(String.format("PDF file too large (%.1f MB). Maximum size is 10 MB", sizeMB));
-                    return;
-                }
+    /**
+     * Validate a PDF and wrap it as a session item, on the calling thread
+     * @throws IOException with a user-facing message if the file is rejected
+     */
+    private CapturedImage createDocumentImage(Uri docUri, String mimeType) throws IOException {
+        // Validate that it's a PDF
+        if (mimeType == null || !mimeType.contains("pdf")) {
+            throw new IOException("Only PDF files are supported");
+        }
 
-                // Encode entire PDF file to base64 (for Gemini API processing)
-                // Use timeout for large files
-                String base64Data = ImageUtils.encodeFileToBase64(context, docUri, mimeType);
-                
-                if (base64Data == null || base64Data.isEmpty()) {
-                    callback.onError("Failed to encode PDF file");
-                    return;
-                }
+        // Check file size (max 10MB)
+        long fileSize = getFileSize(docUri);
 
-                // Create PDF icon thumbnail for gallery display (larger size for clarity)
-                Bitmap thumbnail = ImageUtils.createPdfIconThumbnail(200);
+        if (fileSize < 0) {
+            throw new IOException("Cannot read PDF file");
+        }
 
-                // Create CapturedImage with PDF data
-                com.example.learnquiz_fe.data.model.camera.CapturedImage capturedImage =
-                        new com.example.learnquiz_fe.data.model.camera.CapturedImage(docUri, false);
-                capturedImage.setBase64Data(base64Data);
-                capturedImage.setThumbnail(thumbnail);
-                // Set reasonable dimensions for PDF "image"
-                capturedImage.setOriginalWidth(800);
-                capturedImage.setOriginalHeight(1000);
+        if (fileSize > Constants.MAX_PDF_SIZE_BYTES) {
+            double sizeMB = fileSize / (1024.0 * 1024.0);
+            throw new IOException(String.format("PDF file too large (%.1f MB). Maximum size is 10 MB", sizeMB));
+        }
 
-                callback.onSuccess(capturedImage);
-                
-            } catch (Exception e) {
-                callback.onError("Error processing PDF: " + e.getMessage());
-            }
-        });
+        // PDF bytes are not encoded here: StreamingQuizRequestBody reads and
+        // Base64-encodes them straight from the URI at upload time
+
+        // Create PDF icon thumbnail for gallery display (larger size for clarity)
+        Bitmap thumbnail = ImageUtils.createPdfIconThumbnail(200);
+
+        // Create CapturedImage with PDF data
+        CapturedImage capturedImage = new CapturedImage(docUri, false);
+        capturedImage.setMimeType(mimeType);
+        // Only used to spot the same PDF added twice; documents are not cached
+        capturedImage.setContentKey(contentKeyFor(docUri, null, "pdf"));
+        capturedImage.setThumbnail(thumbnail);
+        // Set reasonable dimensions for PDF "image"
+        capturedImage.setOriginalWidth(800);
+        capturedImage.setOriginalHeight(1000);
+
+        return capturedImage;
     }
     
     /**
@@ -176,44 +327,119 @@ public class ImageRepository {
         return -1;
     }
 
+    /**
+     * Directory for processed session payloads (cache dir, so the OS may reclaim it)
+     * Files left over from a previous process belong to a lost session and are purged
+     * the first time the directory is used.
+     */
+    static synchronized File getSessionDir(Context context) throws IOException {
+        File dir = new File(context.getCacheDir(), SESSION_DIR);
+        if (!sessionDirPurged) {
+            File[] stale = dir.listFiles();
+            if (stale != null) {
+                for (File file : stale) {
+                    file.delete();
+                }
+            }
+            sessionDirPurged = true;
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        return dir;
+    }
+
     private int MAX_IMAGE_DIM_FOR_DOCUMENT() {
         // Use same sizing rule as images but smaller ceiling for documents
         return 1280;
     }
     
     /**
-     * Process multiple images in batch
+     * Process several picked files (photos and PDFs) in parallel
+     * Photos are used whole (no region selection). Work is spread over
+     * {@link ImageProcessingScheduler} under a bitmap memory budget;
+     * callbacks run on worker threads.
+     *
+     * @param uris Files in the order they should appear in the session
+     * @param mimeTypes MIME type of each file (null if unknown)
+     * @param callback Per-file progress, then all results in input order (null = failed)
      */
-    public void processBatch(PhotoSession session, BatchCallback callback) {
-        executorService.execute(() -> {
-            int successCount = 0;
-            int errorCount = 0;
-            
-            for (CapturedImage image : session.getImages()) {
-                if (!image.isReadyForUpload()) {
-                    try {
-                        // Process image if not already processed
-                        Bitmap bitmap = ImageUtils.loadBitmapFromUri(context, image.getImageUri());
-                        
-                        if (bitmap != null) {
-                            String base64 = ImageUtils.compressToBase64(bitmap, 85);
-                            image.setBase64Data(base64);
-                            bitmap.recycle();
-                            successCount++;
-                        } else {
-                            errorCount++;
-                        }
-                    } catch (Exception e) {
-                        errorCount++;
+    public void processFiles(List<Uri> uris, List<String> mimeTypes, BatchProgressCallback callback) {
+        List<ImageProcessingScheduler.Job> jobs = new ArrayList<>();
+        for (int i = 0; i < uris.size(); i++) {
+            final Uri uri = uris.get(i);
+            final String mimeType = mimeTypes.get(i);
+            if (mimeType != null && mimeType.contains("pdf")) {
+                jobs.add(new ImageProcessingScheduler.Job() {
+                    @Override
+                    public long estimateBytes() {
+                        return PDF_THUMBNAIL_BYTES;
+                    }
+
+                    @Override
+                    public CapturedImage run() throws Exception {
+                        return createDocumentImage(uri, mimeType);
                     }
+                });
+            } else {
+                jobs.add(imageJob(uri, null, false));
+            }
+        }
+        ImageProcessingScheduler.getInstance(context).submit(jobs, callback);
+    }
+
+    /**
+     * Re-encode session photos with the current text-page mode, in parallel
+     * Each image keeps its id and position; payload, format, key, baseline and
+     * thumbnail are swapped in place. PDFs are left as they are.
+     */
+    public void reprocessImages(List<CapturedImage> images, BatchCallback callback) {
+        List<CapturedImage> targets = new ArrayList<>();
+        List<ImageProcessingScheduler.Job> jobs = new ArrayList<>();
+        for (CapturedImage image : images) {
+            if (!image.isDocument()) {
+                targets.add(image);
+                jobs.add(imageJob(image.getImageUri(), image.getRegion(), image.isFromCamera()));
+            }
+        }
+
+        ImageProcessingScheduler.getInstance(context).submit(jobs, new BatchProgressCallback() {
+            @Override
+            public void onProgress(int index, CapturedImage result, int finished, int total) {
+                if (result == null) {
+                    return;
                 }
+                CapturedImage image = targets.get(index);
+                image.replacePayload(result.getPayloadFile(), result.getMimeType());
+                image.setEncodeQuality(result.getEncodeQuality());
+                image.setContentKey(result.getContentKey());
+                image.setBaselineSize(result.getBaselineSize());
+                // The old thumbnail may still be on screen until the list rebinds,
+                // so it is left to the GC instead of the pool
+                image.setThumbnail(result.getThumbnail());
+            }
+
+            @Override
+            public void onComplete(List<CapturedImage> results, int errorCount) {
+                callback.onComplete(results.size() - errorCount, errorCount);
             }
-            
-            final int finalSuccess = successCount;
-            final int finalError = errorCount;
-            callback.onComplete(finalSuccess, finalError);
         });
     }
+
+    private ImageProcessingScheduler.Job imageJob(Uri uri, ImageRegion region, boolean fromCamera) {
+        return new ImageProcessingScheduler.Job() {
+            @Override
+            public long estimateBytes() {
+                Rect cropRect = (region != null && region.isValid()) ? region.getScaledBounds() : null;
+                return ImageUtils.estimateDecodeBytes(context, uri, cropRect, UPLOAD_MAX_WIDTH);
+            }
+
+            @Override
+            public CapturedImage run() throws Exception {
+                return decodeImage(uri, region, fromCamera);
+            }
+        };
+    }
     
     /**
      * Cleanup executor service
@@ -238,4 +464,24 @@ public class ImageRepository {
     public interface BatchCallback {
         void onComplete(int successCount, int errorCount);
     }
+
+    /**
+     * Callback interface for parallel processing with per-item progress
+     */
+    public interface BatchProgressCallback {
+        /**
+         * One item finished
+         * @param index Position of the item in the submitted list
+         * @param result Processed image, or null if it failed
+         * @param finished Items finished so far
+         * @param total Items submitted
+         */
+        void onProgress(int index, CapturedImage result, int finished, int total);
+
+        /**
+         * All items finished
+         * @param results Processed images in submission order (null entries failed)
+         */
+        void onComplete(List<CapturedImage> results, int errorCount);
+    }
 }
@@ -0,0 +1,288 @@
+package com.example.learnquiz_fe.data.repository;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.net.Uri;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * On-disk LRU cache of processed (cropped + encoded) upload payloads
+ * Entries are content-addressed: the key is a SHA-256 over the source file bytes, the
+ * selected region and the encode parameters, so re-adding the same gallery photo or
+ * re-cropping with the same region returns the stored payload instead of decoding and
+ * encoding again. Lives in the cache dir and survives across sessions; the OS may
+ * reclaim it.
+ *
+ * Payloads are hard-linked into the session directory (copied if linking fails), so a
+ * session deleting its file never invalidates the cache entry and vice versa.
+ */
+public class ProcessedImageCache {
+
+    private static final String TAG = "ProcessedImageCache";
+
+    private static final String CACHE_DIR = "processed_images";
+    private static final long MAX_BYTES = 50L * 1024 * 1024;
+    private static final String META_SUFFIX = ".meta";
+    private static final int BUFFER_SIZE = 8192;
+
+    private static ProcessedImageCache instance;
+
+    private final File dir;
+    // key -> payload bytes, in access order (eldest first)
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private boolean loaded;
+
+    private ProcessedImageCache(Context context) {
+        this.dir = new File(context.getCacheDir(), CACHE_DIR);
+    }
+
+    public static synchronized ProcessedImageCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new ProcessedImageCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Stored payload and the metadata needed to rebuild a CapturedImage
+     */
+    public static class Entry {
+        public File file;
+        public String mimeType;
+        public int quality;
+        public int sourceWidth;
+        public int sourceHeight;
+        /** Size without text-page preprocessing, 0 if not measured */
+        public long baselineSize;
+    }
+
+    /**
+     * SHA-256 (hex) of the bytes behind a content URI, streamed
+     */
+    public static String hashSource(Context context, Uri uri) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = context.getContentResolver().openInputStream(uri)) {
+            if (in == null) {
+                throw new FileNotFoundException("Cannot open " + uri);
+            }
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, len);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Cache key for a source, region (display pixels, null = whole image) and encode parameters
+     */
+    public static String keyFor(String sourceHash, Rect region, String encodeParams) {
+        String material = sourceHash + "|" + (region != null ? region.flattenToString() : "full")
+                + "|" + encodeParams;
+        return toHex(sha256().digest(material.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Look up a payload; a hit is linked (or copied) into targetDir as a new file
+     * @return Entry whose file is the new file in targetDir, or null on a miss
+     */
+    public synchronized Entry get(String key, File targetDir) {
+        ensureLoaded();
+        // get() (not containsKey) so the hit moves to the most recent end
+        if (index.get(key) == null) {
+            return null;
+        }
+
+        Properties meta = readMeta(key);
+        File cached = meta != null ? new File(dir, key + meta.getProperty("ext", "")) : null;
+        if (cached == null || !cached.isFile()) {
+            remove(key);
+            return null;
+        }
+
+        try {
+            File target = File.createTempFile("img_", meta.getProperty("ext"), targetDir);
+            linkOrCopy(cached, target);
+
+            Entry entry = new Entry();
+            entry.file = target;
+            entry.mimeType = meta.getProperty("mime");
+            entry.quality = Integer.parseInt(meta.getProperty("quality", "0"));
+            entry.sourceWidth = Integer.parseInt(meta.getProperty("width", "0"));
+            entry.sourceHeight = Integer.parseInt(meta.getProperty("height", "0"));
+            entry.baselineSize = Long.parseLong(meta.getProperty("baseline", "0"));
+            cached.setLastModified(System.currentTimeMillis());
+            Log.d(TAG, "Hit " + key.substring(0, 12) + " (" + cached.length() + " bytes)");
+            return entry;
+        } catch (IOException | NumberFormatException e) {
+            Log.w(TAG, "Dropping unreadable entry " + key, e);
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Store a freshly encoded payload (the file itself stays owned by the caller)
+     */
+    public synchronized void put(String key, File payload, String mimeType, int quality,
+                                 int sourceWidth, int sourceHeight, long baselineSize) {
+        ensureLoaded();
+        if (index.containsKey(key) || !payload.isFile()) {
+            return;
+        }
+
+        String name = payload.getName();
+        String ext = name.contains(".") ? name.substring(name.lastIndexOf('.')) : "";
+        File cached = new File(dir, key + ext);
+        Properties meta = new Properties();
+        meta.setProperty("ext", ext);
+        meta.setProperty("mime", mimeType);
+        meta.setProperty("quality", String.valueOf(quality));
+        meta.setProperty("width", String.valueOf(sourceWidth));
+        meta.setProperty("height", String.valueOf(sourceHeight));
+        meta.setProperty("baseline", String.valueOf(baselineSize));
+
+        try {
+            linkOrCopy(payload, cached);
+            try (OutputStream out = new FileOutputStream(new File(dir, key + META_SUFFIX))) {
+                meta.store(out, null);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot cache " + key, e);
+            cached.delete();
+            new File(dir, key + META_SUFFIX).delete();
+            return;
+        }
+
+        index.put(key, cached.length());
+        totalBytes += cached.length();
+        trim();
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+        while (totalBytes > MAX_BYTES && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            eldest.remove();
+            totalBytes -= entry.getValue();
+            deleteFiles(entry.getKey());
+        }
+    }
+
+    private void remove(String key) {
+        Long size = index.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        deleteFiles(key);
+    }
+
+    private void deleteFiles(String key) {
+        File[] files = dir.listFiles((d, name) -> name.startsWith(key));
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Rebuild the index from disk on first use, least recently used first
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.w(TAG, "Cannot create " + dir);
+            return;
+        }
+
+        File[] files = dir.listFiles((d, name) -> !name.endsWith(META_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            String name = file.getName();
+            String key = name.contains(".") ? name.substring(0, name.indexOf('.')) : name;
+            if (new File(dir, key + META_SUFFIX).isFile()) {
+                index.put(key, file.length());
+                totalBytes += file.length();
+            } else {
+                file.delete();
+            }
+        }
+        Log.d(TAG, "Loaded " + index.size() + " entries, " + (totalBytes / 1024) + " KB");
+        trim();
+    }
+
+    private Properties readMeta(String key) {
+        Properties meta = new Properties();
+        try (InputStream in = new FileInputStream(new File(dir, key + META_SUFFIX))) {
+            meta.load(in);
+            return meta;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Hard link when possible (same cache filesystem, no extra bytes), copy otherwise
+     */
+    private static void linkOrCopy(File from, File to) throws IOException {
+        to.delete();
+        try {
+            Os.link(from.getAbsolutePath(), to.getAbsolutePath());
+            return;
+        } catch (ErrnoException e) {
+            Log.d(TAG, "Link failed (" + e.getMessage() + "), copying");
+        }
+        try (InputStream in = new FileInputStream(from);
+             OutputStream out = new FileOutputStream(to)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                out.write(buffer, 0, len);
+            }
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16))
+               .append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
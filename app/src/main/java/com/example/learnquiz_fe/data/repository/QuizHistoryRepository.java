@@ -14,6 +14,8 @@ import com.example.learnquiz_fe.data.model.quizhistory.SubmitQuizResponseDTO;
 import com.example.learnquiz_fe.data.network.ApiService;
 import com.example.learnquiz_fe.data.network.RetrofitClient;
 
+import java.io.IOException;
+
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -21,12 +23,15 @@ import retrofit2.Response;
 /**
  * Repository for quiz history operations
  * Handles quiz submission and result retrieval
+ * Submissions that fail for transient reasons (network, timeout, 5xx) are handed to the
+ * {@link SubmissionOutbox} and delivered in the background.
  */
 public class QuizHistoryRepository {
     
     private static final String TAG = "QuizHistoryRepository";
     private final ApiService apiService;
     private final RetrofitClient retrofitClient;
+    private final SubmissionOutbox outbox;
     
     /**
      * Constructor
@@ -35,6 +40,7 @@ public class QuizHistoryRepository {
     public QuizHistoryRepository(Context context) {
         retrofitClient = RetrofitClient.getInstance(context);
         apiService = retrofitClient.getApiService();
+        outbox = SubmissionOutbox.getInstance(context);
     }
 
     public LiveData<QuizHistoryResponseDTO> getMyHistory() {
@@ -107,7 +113,11 @@ public class QuizHistoryRepository {
                     }
                     Log.e(TAG, "Quiz submission error: " + response.code() 
                         + " - " + response.message());
-                    callback.onError(errorMsg);
+                    if (response.code() >= 500 || response.code() == 408 || response.code() == 429) {
+                        queue(request, errorMsg, callback);
+                    } else {
+                        callback.onError(errorMsg);
+                    }
                 }
             }
             
@@ -119,11 +129,27 @@ public class QuizHistoryRepository {
                 if (t.getMessage() != null && t.getMessage().contains("timeout")) {
                     errorMsg = "Request timeout. Please try again.";
                 }
-                callback.onError(errorMsg);
+                // Only connection problems are worth retrying; parse errors would fail again
+                if (t instanceof IOException && !call.isCanceled()) {
+                    queue(request, errorMsg, callback);
+                } else {
+                    callback.onError(errorMsg);
+                }
             }
         });
     }
     
+    /**
+     * Keep a transiently failed attempt in the outbox (needs an attempt id and a logged-in user)
+     */
+    private void queue(SubmitQuizRequestDTO request, String errorMsg, QuizSubmissionCallback callback) {
+        if (outbox.enqueue(request)) {
+            callback.onQueued(errorMsg);
+        } else {
+            callback.onError(errorMsg);
+        }
+    }
+    
     /**
      * Callback interface for quiz submission
      */
@@ -139,5 +165,11 @@ public class QuizHistoryRepository {
          * @param errorMessage Error message
          */
         void onError(String errorMessage);
+        
+        /**
+         * Called when the submission could not be sent now and was queued for background retry
+         * @param errorMessage Reason the immediate submission failed
+         */
+        void onQueued(String errorMessage);
     }
 }
@@ -2,18 +2,34 @@ package com.example.learnquiz_fe.data.repository;
 
 import android.content.Context;
 import android.util.Log;
+import android.webkit.MimeTypeMap;
 
 import androidx.annotation.NonNull;
 
 import com.example.learnquiz_fe.data.dtos.quiz.QuizResponseDTO;
+import com.example.learnquiz_fe.data.model.camera.CapturedImage;
 import com.example.learnquiz_fe.data.model.quiz.ApiResponse;
 import com.example.learnquiz_fe.data.model.quiz.GenerateQuizRequest;
 import com.example.learnquiz_fe.data.model.quiz.GenerateQuizResponse;
+import com.example.learnquiz_fe.data.model.quiz.QuizDetail;
 import com.example.learnquiz_fe.data.network.ApiService;
+import com.example.learnquiz_fe.data.network.CachePolicyInterceptor;
+import com.example.learnquiz_fe.data.network.ContentUriRequestBody;
 import com.example.learnquiz_fe.data.network.RetrofitClient;
-
+import com.example.learnquiz_fe.data.network.StreamingQuizRequestBody;
+import com.example.learnquiz_fe.utils.CancellationToken;
+import com.example.learnquiz_fe.utils.Constants;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.RequestBody;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -25,9 +41,38 @@ import retrofit2.Response;
 public class QuizRepository {
 
     private static final String TAG = "QuizRepository";
+    private static final String MULTIPART_FILES_FIELD = "files";
+
+    /**
+     * Set once the server answered the multipart endpoint with 404/405/415, so later
+     * generations go straight to the JSON body instead of uploading every file twice
+     */
+    private static volatile boolean multipartUnsupported;
+
+    /**
+     * In-flight read requests, shared across repository instances (one per screen)
+     */
+    private static final RequestCoalescer<GenerateQuizResponse> QUIZ_DETAIL_FLIGHTS = new RequestCoalescer<>();
+    private static final RequestCoalescer<QuizDetail> QUIZ_VIEW_FLIGHTS = new RequestCoalescer<>();
+    private static final RequestCoalescer<List<QuizResponseDTO>> PUBLIC_QUIZZES_FLIGHTS = new RequestCoalescer<>();
+    private static final RequestCoalescer<List<QuizResponseDTO>> MY_QUIZZES_FLIGHTS = new RequestCoalescer<>();
+
+    /**
+     * Last parsed quiz details (most recently used last), so starting a quiz from the
+     * detail screen reuses the payload that screen already loaded
+     */
+    private static final int MAX_CACHED_DETAILS = 4;
+    private static final Map<String, QuizDetail> QUIZ_DETAILS =
+            new LinkedHashMap<String, QuizDetail>(8, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, QuizDetail> eldest) {
+                    return size() > MAX_CACHED_DETAILS;
+                }
+            };
 
     private final ApiService apiService;
     private final Context context;
+    private final Gson gson = new Gson();
 
     /**
      * Constructor
@@ -52,12 +97,153 @@ public class QuizRepository {
         Log.d(TAG, "Generating quiz with " + request.getImages().size() + " images");
 
         // Make API call
-        Call<ApiResponse<GenerateQuizResponse>> call = apiService.generateQuiz(request);
+        enqueueGenerate(apiService.generateQuiz(request), null, callback);
+    }
+
+    /**
+     * Generate quiz with a streaming body
+     * Images are written to the socket while sending, so peak memory
+     * does not grow with the number or size of images
+     * * @param body Streaming request body (settings + session images)
+     * @param token Cancels encoding and the HTTP call; no callback after cancel (may be null)
+     * @param callback Callback for success/error handling
+     */
+    public void generateQuiz(StreamingQuizRequestBody body, CancellationToken token, QuizCallback callback) {
+        if (!body.isValid()) {
+            callback.onError("Invalid request data", 400);
+            return;
+        }
+
+        Log.d(TAG, "Generating quiz (streaming) with " + body.getImageCount() + " images");
+
+        enqueueGenerate(apiService.generateQuizStreaming(body), token, callback);
+    }
+
+    /**
+     * Generate quiz from session images using the given upload mode
+     * MULTIPART sends raw JPEG/WebP/PDF bytes (~33% smaller than Base64); if the server
+     * does not accept the upload endpoint, it falls back to the JSON/Base64 body
+     * * @param settings Quiz settings (images list is ignored)
+     * @param images Session images ready for upload
+     * @param mode Upload mode
+     * @param token Cancels encoding and the HTTP call; no callback after cancel (may be null)
+     * @param callback Callback for success/error handling
+     */
+    public void generateQuiz(GenerateQuizRequest settings, List<CapturedImage> images,
+                             UploadMode mode, CancellationToken token, QuizCallback callback) {
+        if (mode != UploadMode.MULTIPART) {
+            generateQuiz(new StreamingQuizRequestBody(context, settings, images, token), token, callback);
+            return;
+        }
+
+        if (!isValidUpload(settings, images)) {
+            callback.onError("Invalid request data", 400);
+            return;
+        }
 
+        Log.d(TAG, "Generating quiz (multipart) with " + images.size() + " files");
+
+        Call<ApiResponse<GenerateQuizResponse>> call = apiService.generateQuizMultipart(
+                buildSettingsPart(settings), buildFileParts(images));
+
+        enqueueGenerate(call, token, new QuizCallback() {
+            @Override
+            public void onSuccess(GenerateQuizResponse response) {
+                callback.onSuccess(response);
+            }
+
+            @Override
+            public void onError(String message, int errorCode) {
+                if (errorCode == 404 || errorCode == 405 || errorCode == 415) {
+                    // Server has no multipart endpoint: fall back to JSON/Base64 (and remember it)
+                    Log.w(TAG, "Multipart upload not supported (" + errorCode + "), using JSON body");
+                    multipartUnsupported = true;
+                    generateQuiz(new StreamingQuizRequestBody(context, settings, images, token), token, callback);
+                } else {
+                    callback.onError(message, errorCode);
+                }
+            }
+        });
+    }
+
+    /**
+     * Same rules as GenerateQuizRequest.isValid(), applied to session images
+     */
+    private boolean isValidUpload(GenerateQuizRequest settings, List<CapturedImage> images) {
+        if (images == null || images.isEmpty() || images.size() > 10 || !settings.isValidSettings()) {
+            return false;
+        }
+        for (CapturedImage image : images) {
+            if (!image.isReadyForUpload()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Build the JSON settings part (GenerateQuizRequest without images)
+     */
+    private RequestBody buildSettingsPart(GenerateQuizRequest settings) {
+        JsonObject json = gson.toJsonTree(settings).getAsJsonObject();
+        json.remove("images");
+        return RequestBody.create(json.toString(), MediaType.get("application/json; charset=utf-8"));
+    }
+
+    /**
+     * Build one multipart part per image/document with raw bytes
+     */
+    private List<MultipartBody.Part> buildFileParts(List<CapturedImage> images) {
+        List<MultipartBody.Part> parts = new ArrayList<>();
+        for (int i = 0; i < images.size(); i++) {
+            CapturedImage image = images.get(i);
+            RequestBody body;
+            String fileName;
+
+            if (image.isDocument()) {
+                body = new ContentUriRequestBody(context.getContentResolver(),
+                        image.getImageUri(), image.getMimeType(), -1);
+                fileName = "document_" + i + "." + extensionFor(image.getMimeType(), "pdf");
+            } else {
+                // Streamed from the session cache file, never loaded into memory
+                // (isValidUpload only lets images with a payload file through)
+                body = RequestBody.create(image.getPayloadFile(), MediaType.get(image.getMimeType()));
+                // Payload may be JPEG, WebP or PNG (text page mode)
+                fileName = "image_" + i + "." + extensionFor(image.getMimeType(), "jpg");
+            }
+
+            parts.add(MultipartBody.Part.createFormData(MULTIPART_FILES_FIELD, fileName, body));
+        }
+        return parts;
+    }
+
+    /**
+     * File extension for a MIME type (image/webp -> webp), or fallback if unknown
+     */
+    private static String extensionFor(String mimeType, String fallback) {
+        String extension = mimeType != null
+                ? MimeTypeMap.getSingleton().getExtensionFromMimeType(mimeType) : null;
+        return extension != null ? extension : fallback;
+    }
+
+    /**
+     * Enqueue a generate call and map the response to the quiz callback
+     * Cancelling the token cancels the call; the callback is then not invoked
+     */
+    private void enqueueGenerate(Call<ApiResponse<GenerateQuizResponse>> call, CancellationToken token,
+                                 QuizCallback callback) {
+        Runnable cancelCall = call::cancel;
+        if (token != null) {
+            token.addOnCancelListener(cancelCall);
+        }
         call.enqueue(new Callback<ApiResponse<GenerateQuizResponse>>() {
             @Override
             public void onResponse(@NonNull Call<ApiResponse<GenerateQuizResponse>> call,
                                    @NonNull Response<ApiResponse<GenerateQuizResponse>> response) {
+                if (token != null) {
+                    token.removeOnCancelListener(cancelCall);
+                    if (token.isCancelled()) return;
+                }
 
                 if (response.isSuccessful() && response.body() != null) {
                     ApiResponse<GenerateQuizResponse> apiResponse = response.body();
@@ -81,6 +267,13 @@ public class QuizRepository {
             @Override
             public void onFailure(@NonNull Call<ApiResponse<GenerateQuizResponse>> call,
                                   @NonNull Throwable t) {
+                if (token != null) {
+                    token.removeOnCancelListener(cancelCall);
+                }
+                if (call.isCanceled() || (token != null && token.isCancelled())) {
+                    Log.d(TAG, "Quiz generation cancelled");
+                    return;
+                }
                 Log.e(TAG, "Network error: " + t.getMessage(), t);
                 callback.onError("Network error: " + t.getMessage(), -1);
             }
@@ -130,140 +323,222 @@ public class QuizRepository {
 
     /**
      * Get quiz detail by ID (For Editing/Generating context)
+     * Concurrent requests for the same quiz share one network call
      * * @param quizId Quiz ID
      * @param callback Callback for success/error handling
+     * @return Handle to stop delivery to this callback (e.g. in onDestroy)
      */
-    public void getQuizDetail(String quizId, QuizCallback callback) {
-        Call<ApiResponse<GenerateQuizResponse>> call = apiService.getQuizDetail(quizId);
+    public RequestCoalescer.Handle getQuizDetail(String quizId, QuizCallback callback) {
+        GenericCallback<GenerateQuizResponse> adapter = new GenericCallback<GenerateQuizResponse>() {
+            @Override
+            public void onSuccess(GenerateQuizResponse response) {
+                callback.onSuccess(response);
+            }
 
-        call.enqueue(new Callback<ApiResponse<GenerateQuizResponse>>() {
             @Override
-            public void onResponse(@NonNull Call<ApiResponse<GenerateQuizResponse>> call,
-                                   @NonNull Response<ApiResponse<GenerateQuizResponse>> response) {
+            public void onError(String message, int errorCode) {
+                callback.onError(message, errorCode);
+            }
+        };
 
-                if (response.isSuccessful() && response.body() != null) {
-                    ApiResponse<GenerateQuizResponse> apiResponse = response.body();
+        return QUIZ_DETAIL_FLIGHTS.execute(quizId, adapter, sink -> {
+            Call<ApiResponse<GenerateQuizResponse>> call = apiService.getQuizDetail(quizId);
 
-                    if (apiResponse.isSuccess() && apiResponse.getData() != null) {
-                        callback.onSuccess(apiResponse.getData());
+            call.enqueue(new Callback<ApiResponse<GenerateQuizResponse>>() {
+                @Override
+                public void onResponse(@NonNull Call<ApiResponse<GenerateQuizResponse>> call,
+                                       @NonNull Response<ApiResponse<GenerateQuizResponse>> response) {
+
+                    if (response.isSuccessful() && response.body() != null) {
+                        ApiResponse<GenerateQuizResponse> apiResponse = response.body();
+
+                        if (apiResponse.isSuccess() && apiResponse.getData() != null) {
+                            sink.onSuccess(apiResponse.getData());
+                        } else {
+                            sink.onError(apiResponse.getMessage(), response.code());
+                        }
                     } else {
-                        callback.onError(apiResponse.getMessage(), response.code());
+                        sink.onError(handleErrorResponse(response.code()), response.code());
                     }
-                } else {
-                    callback.onError(handleErrorResponse(response.code()), response.code());
                 }
-            }
 
-            @Override
-            public void onFailure(@NonNull Call<ApiResponse<GenerateQuizResponse>> call,
-                                  @NonNull Throwable t) {
-                callback.onError("Network error: " + t.getMessage(), -1);
-            }
+                @Override
+                public void onFailure(@NonNull Call<ApiResponse<GenerateQuizResponse>> call,
+                                      @NonNull Throwable t) {
+                    if (call.isCanceled()) return;
+                    sink.onError("Network error: " + t.getMessage(), -1);
+                }
+            });
+            return call;
         });
     }
 
     /**
      * Get quiz detail by ID (For Viewing/Taking Quiz)
+     * Concurrent requests for the same quiz share one network call; the parsed result is
+     * kept for {@link #getCachedQuizDetail}
+     * @return Handle to stop delivery to this callback (e.g. in onDestroy)
      */
-    public void getQuizDetail(GenericCallback<QuizResponseDTO> callback, String quizId) {
-        Call<ApiResponse<QuizResponseDTO>> call = apiService.getQuizDetailForView(quizId);
-
-        call.enqueue(new Callback<ApiResponse<QuizResponseDTO>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<QuizResponseDTO>> call, Response<ApiResponse<QuizResponseDTO>> response) {
-
-                if (response.isSuccessful() && response.body() != null) {
-                    ApiResponse<QuizResponseDTO> apiResponse = response.body();
-
-                    if (apiResponse.isSuccess() && apiResponse.getData() != null) {
-                        callback.onSuccess(apiResponse.getData());
+    public RequestCoalescer.Handle getQuizDetail(GenericCallback<QuizDetail> callback, String quizId) {
+        return QUIZ_VIEW_FLIGHTS.execute(quizId, callback, sink -> {
+            Call<ApiResponse<QuizDetail>> call = apiService.getQuizDetailForView(quizId);
+
+            call.enqueue(new Callback<ApiResponse<QuizDetail>>() {
+                @Override
+                public void onResponse(Call<ApiResponse<QuizDetail>> call, Response<ApiResponse<QuizDetail>> response) {
+
+                    if (response.isSuccessful() && response.body() != null) {
+                        ApiResponse<QuizDetail> apiResponse = response.body();
+
+                        if (apiResponse.isSuccess() && apiResponse.getData() != null) {
+                            synchronized (QUIZ_DETAILS) {
+                                QUIZ_DETAILS.put(quizId, apiResponse.getData());
+                            }
+                            sink.onSuccess(apiResponse.getData());
+                        } else {
+                            sink.onError(apiResponse.getMessage(), response.code());
+                        }
                     } else {
-                        callback.onError(apiResponse.getMessage(), response.code());
+                        String errorMsg = handleErrorResponse(response.code());
+                        Log.e(TAG, "HTTP error " + response.code() + ": " + errorMsg);
+                        sink.onError(errorMsg, response.code());
                     }
-                } else {
-                    String errorMsg = handleErrorResponse(response.code());
-                    Log.e(TAG, "HTTP error " + response.code() + ": " + errorMsg);
-                    callback.onError(errorMsg, response.code());
                 }
-            }
 
-            @Override
-            public void onFailure(Call<ApiResponse<QuizResponseDTO>> call, Throwable throwable) {
-                Log.e(TAG, "HTTP error " + throwable.getMessage());
-                callback.onError("Network error: " + throwable.getMessage(), -1);
-            }
+                @Override
+                public void onFailure(Call<ApiResponse<QuizDetail>> call, Throwable throwable) {
+                    if (call.isCanceled()) return;
+                    Log.e(TAG, "HTTP error " + throwable.getMessage());
+                    sink.onError("Network error: " + throwable.getMessage(), -1);
+                }
+            });
+            return call;
         });
     }
 
     /**
-     * Get public quizzes
-     * @return {@link ApiResponse<QuizResponseDTO>} API Response containing list of public quizzes
+     * Quiz detail loaded earlier by {@link #getQuizDetail(GenericCallback, String)}
+     * Shared with other screens, treat as read-only
+     * @return The parsed detail, or null if it was not loaded (or was evicted)
      */
-    public void getPublicQuizzes(GenericCallback<List<QuizResponseDTO>> callback, String query) {
-        Call<ApiResponse<List<QuizResponseDTO>>> call = apiService.getPublicQuizzies(query);
+    public QuizDetail getCachedQuizDetail(String quizId) {
+        synchronized (QUIZ_DETAILS) {
+            return QUIZ_DETAILS.get(quizId);
+        }
+    }
 
-        call.enqueue(new Callback<ApiResponse<List<QuizResponseDTO>>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<List<QuizResponseDTO>>> call, Response<ApiResponse<List<QuizResponseDTO>>> response) {
+    /**
+     * Forget the cached detail of a quiz (edited or deleted)
+     */
+    private static void evictQuizDetail(String quizId) {
+        synchronized (QUIZ_DETAILS) {
+            QUIZ_DETAILS.remove(quizId);
+        }
+    }
 
-                if (response.isSuccessful() && response.body() != null) {
-                    ApiResponse<List<QuizResponseDTO>> apiResponse = response.body();
+    /**
+     * Forget every cached quiz detail (logout: the next user must not start from them)
+     */
+    public static void clearQuizDetailCache() {
+        synchronized (QUIZ_DETAILS) {
+            QUIZ_DETAILS.clear();
+        }
+    }
 
-                    if (apiResponse.isSuccess() && apiResponse.getData() != null) {
-                        Log.d(TAG, "Public quizzes fetched successfully");
-                        callback.onSuccess(apiResponse.getData());
+    /**
+     * Get public quizzes
+     * @return Handle to stop delivery to this callback
+     */
+    public RequestCoalescer.Handle getPublicQuizzes(GenericCallback<List<QuizResponseDTO>> callback, String query) {
+        return getPublicQuizzes(callback, query, false);
+    }
+
+    /**
+     * Get public quizzes
+     * Concurrent requests with the same query share one network call
+     * @param forceRefresh true to bypass the HTTP cache (e.g. pull-to-refresh)
+     * @return Handle to stop delivery to this callback
+     */
+    public RequestCoalescer.Handle getPublicQuizzes(GenericCallback<List<QuizResponseDTO>> callback, String query,
+                                                    boolean forceRefresh) {
+        // A forced refresh must not join a request that may be answered from cache
+        String key = (forceRefresh ? "refresh:" : "cached:") + (query != null ? query : "");
+
+        return PUBLIC_QUIZZES_FLIGHTS.execute(key, callback, sink -> {
+            Call<ApiResponse<List<QuizResponseDTO>>> call = forceRefresh
+                    ? apiService.getPublicQuizzies(query, CachePolicyInterceptor.FORCE_NETWORK)
+                    : apiService.getPublicQuizzies(query);
+
+            call.enqueue(new Callback<ApiResponse<List<QuizResponseDTO>>>() {
+                @Override
+                public void onResponse(Call<ApiResponse<List<QuizResponseDTO>>> call, Response<ApiResponse<List<QuizResponseDTO>>> response) {
+
+                    if (response.isSuccessful() && response.body() != null) {
+                        ApiResponse<List<QuizResponseDTO>> apiResponse = response.body();
+
+                        if (apiResponse.isSuccess() && apiResponse.getData() != null) {
+                            Log.d(TAG, "Public quizzes fetched successfully");
+                            sink.onSuccess(apiResponse.getData());
+                        } else {
+                            Log.e(TAG, "API returned error: " + apiResponse.getMessage());
+                            sink.onError(apiResponse.getMessage(), response.code());
+                        }
                     } else {
-                        Log.e(TAG, "API returned error: " + apiResponse.getMessage());
-                        callback.onError(apiResponse.getMessage(), response.code());
+                        String errorMsg = handleErrorResponse(response.code());
+                        Log.e(TAG, "HTTP error " + response.code() + ": " + errorMsg);
+                        sink.onError(errorMsg, response.code());
                     }
-                } else {
-                    String errorMsg = handleErrorResponse(response.code());
-                    Log.e(TAG, "HTTP error " + response.code() + ": " + errorMsg);
-                    callback.onError(errorMsg, response.code());
                 }
-            }
 
-            @Override
-            public void onFailure(Call<ApiResponse<List<QuizResponseDTO>>> call, Throwable throwable) {
-                Log.e(TAG, "HTTP error " + throwable.getMessage());
-                callback.onError("Network error: " + throwable.getMessage(), -1);
-            }
+                @Override
+                public void onFailure(Call<ApiResponse<List<QuizResponseDTO>>> call, Throwable throwable) {
+                    if (call.isCanceled()) return;
+                    Log.e(TAG, "HTTP error " + throwable.getMessage());
+                    sink.onError("Network error: " + throwable.getMessage(), -1);
+                }
+            });
+            return call;
         });
     }
 
     /**
      * Get my quizzes
-     * @return {@link ApiResponse<QuizResponseDTO>} API Response containing list of public quizzes
+     * Concurrent requests share one network call
+     * @return Handle to stop delivery to this callback
      */
-    public void getMyQuizzes(GenericCallback<List<QuizResponseDTO>> callback) {
-        Call<ApiResponse<List<QuizResponseDTO>>> call = apiService.getMyQuizzies();
-
-        call.enqueue(new Callback<ApiResponse<List<QuizResponseDTO>>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<List<QuizResponseDTO>>> call, Response<ApiResponse<List<QuizResponseDTO>>> response) {
-
-                if (response.isSuccessful() && response.body() != null) {
-                    ApiResponse<List<QuizResponseDTO>> apiResponse = response.body();
-
-                    if (apiResponse.isSuccess() && apiResponse.getData() != null) {
-                        Log.d(TAG, "My quizzes fetched successfully");
-                        callback.onSuccess(apiResponse.getData());
+    public RequestCoalescer.Handle getMyQuizzes(GenericCallback<List<QuizResponseDTO>> callback) {
+        return MY_QUIZZES_FLIGHTS.execute("my-quizzes", callback, sink -> {
+            Call<ApiResponse<List<QuizResponseDTO>>> call = apiService.getMyQuizzies();
+
+            call.enqueue(new Callback<ApiResponse<List<QuizResponseDTO>>>() {
+                @Override
+                public void onResponse(Call<ApiResponse<List<QuizResponseDTO>>> call, Response<ApiResponse<List<QuizResponseDTO>>> response) {
+
+                    if (response.isSuccessful() && response.body() != null) {
+                        ApiResponse<List<QuizResponseDTO>> apiResponse = response.body();
+
+                        if (apiResponse.isSuccess() && apiResponse.getData() != null) {
+                            Log.d(TAG, "My quizzes fetched successfully");
+                            sink.onSuccess(apiResponse.getData());
+                        } else {
+                            Log.e(TAG, "API returned error: " + apiResponse.getMessage());
+                            sink.onError(apiResponse.getMessage(), response.code());
+                        }
                     } else {
-                        Log.e(TAG, "API returned error: " + apiResponse.getMessage());
-                        callback.onError(apiResponse.getMessage(), response.code());
+                        String errorMsg = handleErrorResponse(response.code());
+                        Log.e(TAG, "HTTP error " + response.code() + ": " + errorMsg);
+                        sink.onError(errorMsg, response.code());
                     }
-                } else {
-                    String errorMsg = handleErrorResponse(response.code());
-                    Log.e(TAG, "HTTP error " + response.code() + ": " + errorMsg);
-                    callback.onError(errorMsg, response.code());
                 }
-            }
 
-            @Override
-            public void onFailure(Call<ApiResponse<List<QuizResponseDTO>>> call, Throwable throwable) {
-                Log.e(TAG, "HTTP error " + throwable.getMessage());
-                callback.onError("Network error: " + throwable.getMessage(), -1);
-            }
+                @Override
+                public void onFailure(Call<ApiResponse<List<QuizResponseDTO>>> call, Throwable throwable) {
+                    if (call.isCanceled()) return;
+                    Log.e(TAG, "HTTP error " + throwable.getMessage());
+                    sink.onError("Network error: " + throwable.getMessage(), -1);
+                }
+            });
+            return call;
         });
     }
 
@@ -271,10 +546,13 @@ public class QuizRepository {
      * Delete a quiz
      */
     public void deleteQuiz(String quizId, GenericCallback<Object> callback) {
+        evictQuizDetail(quizId);
         Call<ApiResponse<Object>> call = apiService.deleteQuiz(quizId);
         call.enqueue(new Callback<ApiResponse<Object>>() {
             @Override
             public void onResponse(@NonNull Call<ApiResponse<Object>> call, @NonNull Response<ApiResponse<Object>> response) {
+                // A detail load that finished meanwhile may have cached the old quiz again
+                evictQuizDetail(quizId);
                 if (response.isSuccessful() && response.body() != null) {
                     if (response.body().isSuccess()) {
                         callback.onSuccess(response.body().getData());
@@ -297,10 +575,13 @@ public class QuizRepository {
      * Update a quiz
      */
     public void updateQuiz(String quizId, GenerateQuizResponse requestBody, GenericCallback<Object> callback) {
+        evictQuizDetail(quizId);
         Call<ApiResponse<Object>> call = apiService.updateQuiz(quizId, requestBody);
         call.enqueue(new Callback<ApiResponse<Object>>() {
             @Override
             public void onResponse(@NonNull Call<ApiResponse<Object>> call, @NonNull Response<ApiResponse<Object>> response) {
+                // A detail load that finished meanwhile may have cached the old questions again
+                evictQuizDetail(quizId);
                 if (response.isSuccessful() && response.body() != null) {
                     if (response.body().isSuccess()) {
                         callback.onSuccess(response.body().getData());
@@ -341,6 +622,26 @@ public class QuizRepository {
         }
     }
 
+    /**
+     * Upload mode to use for the next generation
+     * Multipart when enabled and the server has not rejected it in this process
+     */
+    public static UploadMode getPreferredUploadMode() {
+        return Constants.MULTIPART_UPLOAD_ENABLED && !multipartUnsupported
+                ? UploadMode.MULTIPART
+                : UploadMode.JSON_BASE64;
+    }
+
+    /**
+     * How generateQuiz sends images to the server
+     */
+    public enum UploadMode {
+        /** Raw bytes as multipart parts, settings as a JSON part */
+        MULTIPART,
+        /** Single JSON body with Base64 data URIs (original format) */
+        JSON_BASE64
+    }
+
     /**
      * Callback interface for quiz operations
      */
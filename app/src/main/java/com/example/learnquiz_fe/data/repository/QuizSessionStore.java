@@ -0,0 +1,278 @@
+package com.example.learnquiz_fe.data.repository;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.learnquiz_fe.data.model.quiz.CompiledQuiz;
+import com.example.learnquiz_fe.data.model.quiz.GenerateQuizResponse;
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process store for quizzes being taken and their attempts, keyed by a short string
+ * Screens pass only the key in their Intent (QuizTakingActivity, QuizResultActivity)
+ * and share one parsed object graph, so a large quiz is never serialized into a Bundle.
+ * Each quiz is compiled once into a {@link CompiledQuiz} answer key; an attempt is the
+ * int vector of selections scored against it.
+ *
+ * Memory holds the most recently used quizzes (LRU). Every put is also written to
+ * filesDir as JSON on a background thread, so after process death a recreated activity
+ * with the same key still finds its quiz and answers: {@link #loadSession} reads them back
+ * on the same background thread and delivers them on the main thread.
+ * The disk copy keeps the most recent MAX_DISK_ENTRIES quizzes; logout clears it.
+ */
+public class QuizSessionStore {
+
+    private static final String TAG = "QuizSessionStore";
+
+    private static final String STORE_DIR = "quiz_sessions";
+    private static final String QUIZ_SUFFIX = ".quiz.json";
+    private static final String ATTEMPT_SUFFIX = ".attempt.json";
+    private static final int MAX_MEMORY_ENTRIES = 8;
+    private static final int MAX_DISK_ENTRIES = 20;
+
+    private static QuizSessionStore instance;
+
+    private final File dir;
+    private final Gson gson = new Gson();
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // key -> quiz, eldest (least recently used) first
+    private final LinkedHashMap<String, GenerateQuizResponse> quizzes =
+            new LinkedHashMap<String, GenerateQuizResponse>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, GenerateQuizResponse> eldest) {
+                    if (size() > MAX_MEMORY_ENTRIES) {
+                        compiled.remove(eldest.getKey());
+                        attempts.remove(eldest.getKey());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+    private final Map<String, CompiledQuiz> compiled = new HashMap<>();
+    // key -> selection per question (see CompiledQuiz)
+    private final Map<String, int[]> attempts = new HashMap<>();
+
+    /**
+     * A stored quiz with its answer key and the last recorded attempt
+     */
+    public static class Session {
+        public final GenerateQuizResponse quiz;
+        public final CompiledQuiz answerKey;
+        /** One selection per question (see CompiledQuiz), null if no attempt was recorded */
+        public final int[] attempt;
+
+        Session(GenerateQuizResponse quiz, CompiledQuiz answerKey, int[] attempt) {
+            this.quiz = quiz;
+            this.answerKey = answerKey;
+            this.attempt = attempt;
+        }
+    }
+
+    public interface SessionCallback {
+        /**
+         * @param session The stored session, or null if the key is unknown
+         */
+        void onLoaded(Session session);
+    }
+
+    private QuizSessionStore(Context context) {
+        this.dir = new File(context.getFilesDir(), STORE_DIR);
+    }
+
+    public static synchronized QuizSessionStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new QuizSessionStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Store a quiz for the screens that follow
+     * @return Key to pass in the Intent (the quiz id, or a local id for unsaved quizzes)
+     */
+    public synchronized String putQuiz(GenerateQuizResponse quiz) {
+        String key = quiz.getId() != null && !quiz.getId().isEmpty()
+                ? quiz.getId() : "local-" + UUID.randomUUID();
+        quizzes.put(key, quiz);
+        compiled.remove(key);
+        attempts.remove(key);
+        // Serialized on the disk thread; stored quizzes are not modified afterwards
+        diskExecutor.execute(() -> {
+            writeFile(new File(dir, key + QUIZ_SUFFIX), gson.toJson(quiz));
+            new File(dir, key + ATTEMPT_SUFFIX).delete();
+            trimDisk();
+        });
+        return key;
+    }
+
+    /**
+     * Quiz, answer key and attempt for key
+     * From memory the callback runs right away; after process death the files are read on
+     * the disk thread and the callback runs on the main thread.
+     */
+    public void loadSession(String key, SessionCallback callback) {
+        if (key == null) {
+            callback.onLoaded(null);
+            return;
+        }
+        Session session = fromMemory(key);
+        if (session != null) {
+            callback.onLoaded(session);
+            return;
+        }
+        diskExecutor.execute(() -> {
+            Session restored = fromDisk(key);
+            mainHandler.post(() -> callback.onLoaded(restored));
+        });
+    }
+
+    private synchronized Session fromMemory(String key) {
+        GenerateQuizResponse quiz = quizzes.get(key);
+        if (quiz == null) {
+            return null;
+        }
+        return new Session(quiz, compile(key, quiz), attempts.get(key));
+    }
+
+    /**
+     * Read quiz and attempt back after process death (disk thread)
+     */
+    private Session fromDisk(String key) {
+        GenerateQuizResponse quiz = readFile(new File(dir, key + QUIZ_SUFFIX), GenerateQuizResponse.class);
+        if (quiz == null) {
+            return null;
+        }
+        int[] attempt = readFile(new File(dir, key + ATTEMPT_SUFFIX), int[].class);
+        synchronized (this) {
+            Session current = fromMemory(key);
+            if (current != null) {
+                // Put again while this was reading: memory is newer
+                return current;
+            }
+            Log.d(TAG, "Restored quiz " + key + " from disk");
+            quizzes.put(key, quiz);
+            if (attempt != null) {
+                attempts.put(key, attempt);
+            }
+            return new Session(quiz, compile(key, quiz), attempt);
+        }
+    }
+
+    /**
+     * Answer key of a stored quiz, compiled on first use
+     */
+    private CompiledQuiz compile(String key, GenerateQuizResponse quiz) {
+        CompiledQuiz answerKey = compiled.get(key);
+        if (answerKey == null) {
+            answerKey = new CompiledQuiz(quiz);
+            compiled.put(key, answerKey);
+        }
+        return answerKey;
+    }
+
+    /**
+     * Record the finished attempt of a quiz (replaces any previous one)
+     * @param selections One selection per question (see CompiledQuiz)
+     */
+    public synchronized void putAttempt(String key, int[] selections) {
+        int[] copy = selections.clone();
+        attempts.put(key, copy);
+        diskExecutor.execute(() -> writeFile(new File(dir, key + ATTEMPT_SUFFIX), gson.toJson(copy)));
+    }
+
+    /**
+     * Drop the attempt for key (retake starts from scratch)
+     */
+    public synchronized void clearAttempt(String key) {
+        attempts.remove(key);
+        diskExecutor.execute(() -> new File(dir, key + ATTEMPT_SUFFIX).delete());
+    }
+
+    /**
+     * Drop every stored quiz and attempt (logout: they belong to the previous account)
+     */
+    public synchronized void clear() {
+        quizzes.clear();
+        compiled.clear();
+        attempts.clear();
+        diskExecutor.execute(() -> {
+            File[] files = dir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+        });
+    }
+
+    private void writeFile(File file, String json) {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.w(TAG, "Cannot create " + dir);
+            return;
+        }
+        // Write to a temp file and rename, so a kill mid-write never leaves a torn file
+        File temp = new File(dir, file.getName() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            writer.write(json);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot write " + file.getName(), e);
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            Log.w(TAG, "Cannot rename " + temp.getName());
+            temp.delete();
+        }
+    }
+
+    private <T> T readFile(File file, Type type) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, type);
+        } catch (Exception e) {
+            Log.w(TAG, "Cannot read " + file.getName(), e);
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Keep only the most recently written quizzes (and their attempts) on disk
+     */
+    private void trimDisk() {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(QUIZ_SUFFIX));
+        if (files == null || files.length <= MAX_DISK_ENTRIES) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        for (int i = MAX_DISK_ENTRIES; i < files.length; i++) {
+            String key = files[i].getName().substring(0, files[i].getName().length() - QUIZ_SUFFIX.length());
+            files[i].delete();
+            new File(dir, key + ATTEMPT_SUFFIX).delete();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.learnquiz_fe.data.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Call;
+
+/**
+ * Single-flight layer for read requests
+ * Concurrent callers asking for the same key share one network Call and one parsed
+ * result; each caller still gets its own callback and can cancel on its own.
+ * The Call itself is cancelled only when every caller has cancelled.
+ *
+ * Note: all callers receive the same result object, so treat it as read-only.
+ *
+ * @param <T> Parsed result type
+ */
+public class RequestCoalescer<T> {
+
+    /**
+     * Starts the real request and reports its outcome to the given sink
+     */
+    public interface CallStarter<T> {
+        Call<?> start(QuizRepository.GenericCallback<T> sink);
+    }
+
+    private final Map<String, Flight<T>> flights = new HashMap<>();
+
+    /**
+     * Join the in-flight request for key, or start it if none is running
+     *
+     * @return Handle to cancel this caller only
+     */
+    public Handle execute(String key, QuizRepository.GenericCallback<T> callback, CallStarter<T> starter) {
+        Flight<T> flight;
+        boolean isNew = false;
+
+        synchronized (flights) {
+            flight = flights.get(key);
+            if (flight == null) {
+                flight = new Flight<>();
+                flights.put(key, flight);
+                isNew = true;
+            }
+            flight.callbacks.add(callback);
+        }
+
+        if (isNew) {
+            final Flight<T> started = flight;
+            Call<?> call = starter.start(new QuizRepository.GenericCallback<T>() {
+                @Override
+                public void onSuccess(T response) {
+                    for (QuizRepository.GenericCallback<T> cb : finish(key, started)) {
+                        cb.onSuccess(response);
+                    }
+                }
+
+                @Override
+                public void onError(String message, int errorCode) {
+                    for (QuizRepository.GenericCallback<T> cb : finish(key, started)) {
+                        cb.onError(message, errorCode);
+                    }
+                }
+            });
+
+            synchronized (flights) {
+                started.call = call;
+                if (started.callbacks.isEmpty() && call != null) {
+                    // Every caller cancelled before the call was even assigned
+                    call.cancel();
+                }
+            }
+        }
+
+        final Flight<T> joined = flight;
+        return new Handle(() -> cancel(key, joined, callback));
+    }
+
+    /**
+     * Detach the flight and return the callbacks still waiting on it
+     */
+    private List<QuizRepository.GenericCallback<T>> finish(String key, Flight<T> flight) {
+        synchronized (flights) {
+            if (flights.get(key) == flight) {
+                flights.remove(key);
+            }
+            List<QuizRepository.GenericCallback<T>> waiting = new ArrayList<>(flight.callbacks);
+            flight.callbacks.clear();
+            return waiting;
+        }
+    }
+
+    private void cancel(String key, Flight<T> flight, QuizRepository.GenericCallback<T> callback) {
+        synchronized (flights) {
+            if (!flight.callbacks.remove(callback) || !flight.callbacks.isEmpty()) {
+                return;
+            }
+            if (flights.get(key) == flight) {
+                flights.remove(key);
+            }
+            if (flight.call != null) {
+                flight.call.cancel();
+            }
+        }
+    }
+
+    private static class Flight<T> {
+        final List<QuizRepository.GenericCallback<T>> callbacks = new ArrayList<>();
+        Call<?> call;
+    }
+
+    /**
+     * Per-caller handle returned by {@link #execute}
+     */
+    public static final class Handle {
+        private final Runnable onCancel;
+
+        private Handle(Runnable onCancel) {
+            this.onCancel = onCancel;
+        }
+
+        /**
+         * Stop delivering the result to this caller
+         * The shared Call is cancelled once no caller is left
+         */
+        public void cancel() {
+            onCancel.run();
+        }
+    }
+}
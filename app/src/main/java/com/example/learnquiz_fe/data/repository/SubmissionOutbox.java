@@ -0,0 +1,304 @@
+package com.example.learnquiz_fe.data.repository;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.learnquiz_fe.data.model.quiz.ApiResponse;
+import com.example.learnquiz_fe.data.model.quizhistory.SubmitQuizRequestDTO;
+import com.example.learnquiz_fe.data.model.quizhistory.SubmitQuizResponseDTO;
+import com.example.learnquiz_fe.data.network.ApiService;
+import com.example.learnquiz_fe.data.network.RetrofitClient;
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Response;
+
+/**
+ * Persistent outbox of quiz submissions that could not reach the server
+ * Each pending SubmitQuizRequestDTO is one JSON file in filesDir named after its attempt
+ * id, so queueing the same attempt twice replaces the entry instead of sending it twice,
+ * and pending attempts survive process death. Every entry records the user who took the
+ * attempt; it is only sent while that user is logged in, so attempts queued before a logout
+ * wait until the same user logs in again and are never credited to another account.
+ *
+ * The outbox is drained on a background thread: oldest attempt first, one request after
+ * another in a single pass (the API has no batch submit endpoint; the requests share one
+ * pooled connection). A transient failure stops the pass and schedules the next one with
+ * exponential backoff; regaining a network drains immediately. A 401 (session gone)
+ * stops draining until the next login. Rejected attempts (other 4xx) are dropped.
+ */
+public class SubmissionOutbox {
+
+    private static final String TAG = "SubmissionOutbox";
+
+    private static final String OUTBOX_DIR = "submission_outbox";
+    private static final String SUFFIX = ".json";
+
+    private static final long INITIAL_BACKOFF_MS = 5_000;
+    private static final long MAX_BACKOFF_MS = 15 * 60_000;
+
+    private static SubmissionOutbox instance;
+
+    private final File dir;
+    private final RetrofitClient retrofitClient;
+    private final ApiService apiService;
+    private final ConnectivityManager connectivityManager;
+    private final Gson gson = new Gson();
+    // One thread: file writes, drains and retries never overlap
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    private long backoffMs = INITIAL_BACKOFF_MS;
+    private ScheduledFuture<?> scheduledDrain;
+    private boolean watchingNetwork;
+
+    private final ConnectivityManager.NetworkCallback networkCallback =
+            new ConnectivityManager.NetworkCallback() {
+                @Override
+                public void onAvailable(@NonNull Network network) {
+                    Log.d(TAG, "Network available, draining");
+                    drainNow();
+                }
+            };
+
+    /**
+     * One queued attempt and the user it belongs to (stored as JSON)
+     */
+    private static class Entry {
+        String userId;
+        SubmitQuizRequestDTO request;
+    }
+
+    private enum SendResult {
+        /** Delivered, or rejected for good: remove the entry */
+        DONE,
+        /** Network or server trouble: keep it and back off */
+        RETRY,
+        /** Session is gone: keep it and wait for the next login */
+        LOGIN_REQUIRED
+    }
+
+    private SubmissionOutbox(Context context) {
+        this.dir = new File(context.getFilesDir(), OUTBOX_DIR);
+        this.retrofitClient = RetrofitClient.getInstance(context);
+        this.apiService = retrofitClient.getApiService();
+        this.connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        // Attempts left over from a previous run
+        executor.execute(this::drain);
+    }
+
+    public static synchronized SubmissionOutbox getInstance(Context context) {
+        if (instance == null) {
+            instance = new SubmissionOutbox(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Persist an attempt of the logged-in user and try to send it
+     * (replaces a pending entry with the same attempt id)
+     * @return false if it cannot be queued (no attempt id or nobody logged in)
+     */
+    public boolean enqueue(@NonNull SubmitQuizRequestDTO request) {
+        String attemptId = request.getAttemptId();
+        if (attemptId == null || attemptId.isEmpty()) {
+            Log.w(TAG, "Attempt of quiz " + request.getQuizId() + " has no attempt id, not queued");
+            return false;
+        }
+        Entry entry = new Entry();
+        entry.userId = retrofitClient.getUserId();
+        entry.request = request;
+        if (entry.userId == null) {
+            Log.w(TAG, "No user logged in, attempt " + attemptId + " not queued");
+            return false;
+        }
+        String json = gson.toJson(entry);
+        executor.execute(() -> {
+            if (writeFile(fileFor(attemptId), json)) {
+                Log.d(TAG, "Queued attempt " + attemptId);
+                drain();
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Send pending attempts now, skipping any backoff wait
+     */
+    public void drainNow() {
+        executor.execute(() -> {
+            backoffMs = INITIAL_BACKOFF_MS;
+            drain();
+        });
+    }
+
+    /**
+     * One pass over the outbox (executor thread)
+     */
+    private void drain() {
+        if (scheduledDrain != null) {
+            scheduledDrain.cancel(false);
+            scheduledDrain = null;
+        }
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+        if (files == null || files.length == 0) {
+            stopWatchingNetwork();
+            return;
+        }
+        String userId = retrofitClient.getUserId();
+        if (userId == null) {
+            // Logged out: nothing can be sent until the next login (MainActivity drains then)
+            Log.d(TAG, files.length + " pending, waiting for login");
+            stopWatchingNetwork();
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+
+        int sent = 0;
+        int skipped = 0;
+        for (File file : files) {
+            Entry entry = readFile(file);
+            if (entry == null || entry.userId == null || entry.request == null || !entry.request.isValid()) {
+                file.delete();
+                continue;
+            }
+            if (!userId.equals(entry.userId)) {
+                // Another account's attempt: never credit it to the current user
+                skipped++;
+                continue;
+            }
+            SendResult result = send(entry.request);
+            if (result == SendResult.LOGIN_REQUIRED) {
+                Log.d(TAG, "Session expired, waiting for login");
+                stopWatchingNetwork();
+                return;
+            }
+            if (result == SendResult.RETRY) {
+                // Still offline (or the server is down): keep the rest for the next pass
+                Log.d(TAG, "Sent " + sent + ", " + (files.length - sent - skipped) + " pending, retry in "
+                        + (backoffMs / 1000) + " s");
+                watchNetwork();
+                scheduledDrain = executor.schedule(this::drain, backoffMs, TimeUnit.MILLISECONDS);
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+                return;
+            }
+            file.delete();
+            sent++;
+        }
+        Log.d(TAG, "Outbox drained (" + sent + " sent, " + skipped + " of other users)");
+        backoffMs = INITIAL_BACKOFF_MS;
+        stopWatchingNetwork();
+    }
+
+    private SendResult send(SubmitQuizRequestDTO request) {
+        try {
+            Response<ApiResponse<SubmitQuizResponseDTO>> response =
+                    apiService.submitQuiz(request).execute();
+            int code = response.code();
+            if (response.isSuccessful()) {
+                ApiResponse<SubmitQuizResponseDTO> body = response.body();
+                if (body != null && !body.isSuccess()) {
+                    Log.w(TAG, "Attempt " + request.getAttemptId() + " rejected: " + body.getMessage());
+                } else {
+                    Log.d(TAG, "Delivered attempt " + request.getAttemptId());
+                }
+                return SendResult.DONE;
+            }
+            if (code == 401) {
+                // TokenAuthenticator could not refresh the session
+                return SendResult.LOGIN_REQUIRED;
+            }
+            if (code == 408 || code == 429 || code >= 500) {
+                Log.w(TAG, "Attempt " + request.getAttemptId() + " failed with " + code);
+                return SendResult.RETRY;
+            }
+            Log.w(TAG, "Attempt " + request.getAttemptId() + " rejected with " + code + ", dropping");
+            return SendResult.DONE;
+        } catch (IOException e) {
+            Log.w(TAG, "Network error for attempt " + request.getAttemptId() + ": " + e.getMessage());
+            return SendResult.RETRY;
+        } catch (RuntimeException e) {
+            // Unreadable response body: the request itself went through
+            Log.w(TAG, "Unexpected response for attempt " + request.getAttemptId(), e);
+            return SendResult.DONE;
+        }
+    }
+
+    private void watchNetwork() {
+        if (watchingNetwork || connectivityManager == null) {
+            return;
+        }
+        try {
+            connectivityManager.registerDefaultNetworkCallback(networkCallback);
+            watchingNetwork = true;
+        } catch (RuntimeException e) {
+            // Too many callbacks or missing permission: backoff alone still retries
+            Log.w(TAG, "Cannot watch connectivity", e);
+        }
+    }
+
+    private void stopWatchingNetwork() {
+        if (!watchingNetwork) {
+            return;
+        }
+        watchingNetwork = false;
+        try {
+            connectivityManager.unregisterNetworkCallback(networkCallback);
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Network callback was not registered", e);
+        }
+    }
+
+    private File fileFor(String attemptId) {
+        return new File(dir, attemptId.replaceAll("[^A-Za-z0-9._-]", "_") + SUFFIX);
+    }
+
+    private boolean writeFile(File file, String json) {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.w(TAG, "Cannot create " + dir);
+            return false;
+        }
+        // Temp file + rename, so a kill mid-write never leaves a torn entry
+        File temp = new File(dir, file.getName() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            writer.write(json);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot write " + file.getName(), e);
+            temp.delete();
+            return false;
+        }
+        if (!temp.renameTo(file)) {
+            Log.w(TAG, "Cannot rename " + temp.getName());
+            temp.delete();
+            return false;
+        }
+        return true;
+    }
+
+    private Entry readFile(File file) {
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, Entry.class);
+        } catch (Exception e) {
+            Log.w(TAG, "Dropping unreadable entry " + file.getName(), e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.learnquiz_fe.data.repository;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.learnquiz_fe.data.model.camera.CapturedImage;
+import com.example.learnquiz_fe.data.model.camera.UploadStatus;
+import com.example.learnquiz_fe.utils.Base64StreamEncoder;
+import com.example.learnquiz_fe.utils.CancellationToken;
+import com.example.learnquiz_fe.utils.Constants;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Prepares upload data URIs in the background as soon as images join the session
+ * Each photo payload (or PDF) is Base64-encoded once into a ".b64" file next to the
+ * session payloads; StreamingQuizRequestBody then just copies that file to the socket,
+ * so no encoding is left on the Generate path. Jobs run one at a time (disk bound) in
+ * the order images were added.
+ *
+ * Removing an image cancels its job. A job whose payload was replaced meanwhile
+ * (e.g. text page mode re-encode) discards its result and encodes the new payload.
+ */
+public class UploadPreEncoder {
+
+    private static final String TAG = "UploadPreEncoder";
+
+    private static final String SUFFIX = ".b64";
+    // Progress is published in steps of this many percent
+    private static final int PROGRESS_STEP = 10;
+
+    private static UploadPreEncoder instance;
+
+    private final Context context;
+    private final ExecutorService executor;
+    // Image id -> token of its queued or running job
+    private final Map<String, CancellationToken> jobs = new HashMap<>();
+
+    private UploadPreEncoder(Context context) {
+        this.context = context;
+        this.executor = Executors.newSingleThreadExecutor();
+    }
+
+    public static synchronized UploadPreEncoder getInstance(Context context) {
+        if (instance == null) {
+            instance = new UploadPreEncoder(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Status updates, delivered on the encoder thread
+     */
+    public interface Listener {
+        void onStatus(String imageId, UploadStatus status);
+    }
+
+    /**
+     * Queue an image unless it is already prepared or queued
+     */
+    public synchronized void schedule(CapturedImage image, @NonNull Listener listener) {
+        if (image.isEncoded()) {
+            listener.onStatus(image.getId(), new UploadStatus(UploadStatus.State.READY, 100));
+            return;
+        }
+        if (jobs.containsKey(image.getId())) {
+            return;
+        }
+
+        CancellationToken token = new CancellationToken();
+        jobs.put(image.getId(), token);
+        listener.onStatus(image.getId(), new UploadStatus(UploadStatus.State.QUEUED, 0));
+        executor.execute(() -> {
+            UploadStatus result;
+            try {
+                result = encode(image, token, listener);
+            } catch (CancellationToken.CancelledException e) {
+                Log.d(TAG, "Cancelled " + image.getId());
+                return;
+            } catch (IOException e) {
+                Log.w(TAG, "Cannot prepare " + image.getId(), e);
+                result = new UploadStatus(UploadStatus.State.FAILED, 0);
+            } finally {
+                finish(image.getId(), token);
+            }
+            listener.onStatus(image.getId(), result);
+        });
+    }
+
+    /**
+     * Cancel the job of a removed image (its files are deleted by CapturedImage.cleanup)
+     */
+    public synchronized void cancel(String imageId) {
+        CancellationToken token = jobs.remove(imageId);
+        if (token != null) {
+            token.cancel();
+        }
+    }
+
+    /**
+     * Cancel every queued and running job (session cleared)
+     */
+    public synchronized void cancelAll() {
+        for (CancellationToken token : jobs.values()) {
+            token.cancel();
+        }
+        jobs.clear();
+    }
+
+    private synchronized void finish(String imageId, CancellationToken token) {
+        if (jobs.get(imageId) == token) {
+            jobs.remove(imageId);
+        }
+    }
+
+    private UploadStatus encode(CapturedImage image, CancellationToken token,
+                                Listener listener) throws IOException {
+        while (true) {
+            token.throwIfCancelled();
+            if (!image.isDocument() && image.getPayloadFile() == null) {
+                // Nothing to prepare; the upload falls back to its own encoding
+                return new UploadStatus(UploadStatus.State.FAILED, 0);
+            }
+            File source = image.isDocument() ? null : image.getPayloadFile();
+            if (encodeOnce(image, source, token, listener)) {
+                return new UploadStatus(UploadStatus.State.READY, 100);
+            }
+            // The payload was replaced (re-encoded) while this job ran: start over
+            Log.d(TAG, "Payload of " + image.getId() + " changed, encoding again");
+        }
+    }
+
+    /**
+     * @return false if the image's payload is no longer source (result discarded)
+     */
+    private boolean encodeOnce(CapturedImage image, File source, CancellationToken token,
+                               Listener listener) throws IOException {
+        File output = File.createTempFile("upload_", SUFFIX, ImageRepository.getSessionDir(context));
+        InputStream in;
+        long total;
+        if (source != null) {
+            in = new FileInputStream(source);
+            total = source.length();
+        } else {
+            in = context.getContentResolver().openInputStream(image.getImageUri());
+            if (in == null) {
+                output.delete();
+                throw new FileNotFoundException("Cannot open " + image.getImageUri());
+            }
+            total = sourceLength(image.getImageUri());
+        }
+
+        // Read after source: replacePayload sets the MIME type before the payload, so a
+        // matching source implies a matching type (a stale pair fails attachEncodedFile)
+        String mimeType = image.getMimeType();
+        listener.onStatus(image.getId(), new UploadStatus(UploadStatus.State.ENCODING, 0));
+        long start = System.currentTimeMillis();
+        InputStream counting = new ProgressInputStream(in, total, percent ->
+                listener.onStatus(image.getId(), new UploadStatus(UploadStatus.State.ENCODING, percent)));
+        // Documents keep the old per-file cap (Constants.PDF_ENCODING_TIMEOUT_MS)
+        CancellationToken encodeToken = source != null ? token
+                : CancellationToken.withTimeout(Constants.PDF_ENCODING_TIMEOUT_MS, token);
+        try {
+            Base64StreamEncoder.encodeToFile(counting, mimeType, output, encodeToken);
+        } catch (CancellationToken.CancelledException e) {
+            if (encodeToken.isTimedOut()) {
+                throw new IOException("Encoding " + image.getId() + " timed out after "
+                        + Constants.PDF_ENCODING_TIMEOUT_MS + " ms");
+            }
+            throw e;
+        } finally {
+            if (encodeToken != token) {
+                encodeToken.release();
+            }
+        }
+
+        if (!image.attachEncodedFile(source, output)) {
+            output.delete();
+            return false;
+        }
+        Log.d(TAG, "Prepared " + image.getId() + ": " + (output.length() / 1024) + " KB in "
+                + (System.currentTimeMillis() - start) + " ms");
+        return true;
+    }
+
+    /**
+     * Byte length behind a content URI, or -1 if the provider does not say
+     */
+    private long sourceLength(Uri uri) {
+        try (AssetFileDescriptor afd = context.getContentResolver().openAssetFileDescriptor(uri, "r")) {
+            return afd != null ? afd.getLength() : -1;
+        } catch (IOException | SecurityException e) {
+            return -1;
+        }
+    }
+
+    private interface ProgressListener {
+        void onProgress(int percent);
+    }
+
+    /**
+     * Reports read progress in PROGRESS_STEP increments (only when the total is known)
+     */
+    private static class ProgressInputStream extends FilterInputStream {
+
+        private final long total;
+        private final ProgressListener listener;
+        private long read;
+        private int lastStep;
+
+        ProgressInputStream(InputStream in, long total, ProgressListener listener) {
+            super(in);
+            this.total = total;
+            this.listener = listener;
+        }
+
+        @Override
+        public int read(@NonNull byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count > 0 && total > 0) {
+                read += count;
+                int step = (int) Math.min(100, read * 100 / total) / PROGRESS_STEP;
+                if (step > lastStep) {
+                    lastStep = step;
+                    listener.onProgress(step * PROGRESS_STEP);
+                }
+            }
+            return count;
+        }
+    }
+}
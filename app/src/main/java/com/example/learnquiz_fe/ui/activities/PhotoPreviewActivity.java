@@ -18,6 +18,7 @@ import com.example.learnquiz_fe.data.model.camera.ImageRegion;
 import com.example.learnquiz_fe.data.repository.ImageRepository;
 import com.example.learnquiz_fe.ui.viewmodel.PhotoSessionViewModel;
 import com.example.learnquiz_fe.ui.views.RegionSelectorView;
+import com.example.learnquiz_fe.utils.BitmapPool;
 import com.example.learnquiz_fe.utils.Constants;
 import com.example.learnquiz_fe.utils.ImageUtils;
 import com.github.chrisbanes.photoview.PhotoView;
@@ -31,6 +32,8 @@ import com.google.android.material.button.MaterialButton;
 public class PhotoPreviewActivity extends AppCompatActivity {
     
     private static final String TAG = "PhotoPreviewActivity";
+    // Preview bitmap width cap, enough for zooming on phone screens
+    private static final int PREVIEW_MAX_WIDTH = 2048;
     
     // UI Components
     private MaterialToolbar toolbar;
@@ -61,7 +64,7 @@ public class PhotoPreviewActivity extends AppCompatActivity {
         setContentView(R.layout.activity_photo_preview);
         
         // Get ViewModel - Use requireActivity() to share across activities
-        sessionViewModel = PhotoSessionViewModel.getInstance();
+        sessionViewModel = PhotoSessionViewModel.getInstance(this);
         imageRepository = new ImageRepository(this);
         
         // Get intent data
@@ -150,16 +153,20 @@ public class PhotoPreviewActivity extends AppCompatActivity {
      */
     private void loadImage() {
         try {
-            originalBitmap = ImageUtils.loadBitmapFromUri(this, imageUri);
+            // Decode at screen-ish resolution; region coordinates still use the full image size
+            ImageUtils.DecodedRegion decoded =
+                ImageUtils.loadBitmapFromUri(this, imageUri, null, PREVIEW_MAX_WIDTH);
+            originalBitmap = decoded != null ? decoded.bitmap : null;
             if (originalBitmap != null) {
                 photoView.setImageBitmap(originalBitmap);
-                Log.d(TAG, "Image loaded: " + originalBitmap.getWidth() + "x" + originalBitmap.getHeight());
+                Log.d(TAG, "Image loaded: " + originalBitmap.getWidth() + "x" + originalBitmap.getHeight()
+                        + " (source " + decoded.sourceWidth + "x" + decoded.sourceHeight + ")");
                 
                 // ✅ FIX: Set image dimensions to RegionSelectorView after layout
                 photoView.post(() -> {
                     regionSelector.setImageDimensions(
-                        originalBitmap.getWidth(),
-                        originalBitmap.getHeight()
+                        decoded.sourceWidth,
+                        decoded.sourceHeight
                     );
                     Log.d(TAG, "Image dimensions set to RegionSelectorView");
                 });
@@ -209,10 +216,11 @@ public class PhotoPreviewActivity extends AppCompatActivity {
                 public void onSuccess(CapturedImage capturedImage) {
                     runOnUiThread(() -> {
                         Log.d(TAG, "Image processed successfully");
-                        Log.d(TAG, "Base64 length: " + (capturedImage.getBase64Data() != null ? capturedImage.getBase64Data().length() : 0));
+                        Log.d(TAG, "Payload size: " + capturedImage.getPayloadSize());
                         Log.d(TAG, "Current session count before add: " + sessionViewModel.getCurrentImageCount());
                         
-                        // Add to session
+                        // Add to session (rejected if the same photo + region is already in it)
+                        boolean duplicate = sessionViewModel.isDuplicate(capturedImage);
                         boolean added = sessionViewModel.addImage(capturedImage);
                         
                         Log.d(TAG, "Image added: " + added);
@@ -229,6 +237,13 @@ public class PhotoPreviewActivity extends AppCompatActivity {
                                 Log.d(TAG, "Showing options dialog");
                                 showOptionsDialog();
                             }
+                        } else if (duplicate) {
+                            loadingOverlay.setVisibility(View.GONE);
+                            Toast.makeText(PhotoPreviewActivity.this, 
+                                R.string.generation_duplicate_photo, Toast.LENGTH_SHORT).show();
+                            // Stay here so the user can pick a different region
+                            btnContinue.setEnabled(true);
+                            btnConfirm.setEnabled(true);
                         } else {
                             loadingOverlay.setVisibility(View.GONE);
                             Toast.makeText(PhotoPreviewActivity.this, 
@@ -287,7 +302,9 @@ public class PhotoPreviewActivity extends AppCompatActivity {
         
         // Cleanup
         if (originalBitmap != null && !originalBitmap.isRecycled()) {
-            originalBitmap.recycle();
+            photoView.setImageDrawable(null);
+            BitmapPool.getInstance().put(originalBitmap);
+            originalBitmap = null;
         }
         
         imageRepository.shutdown();
@@ -24,13 +24,16 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.learnquiz_fe.R;
 import com.example.learnquiz_fe.data.model.camera.CapturedImage;
 import com.example.learnquiz_fe.data.model.camera.ImageRegion;
+import com.example.learnquiz_fe.data.model.camera.UploadStatus;
 import com.example.learnquiz_fe.data.model.quiz.GenerateQuizRequest;
 import com.example.learnquiz_fe.data.model.quiz.GenerateQuizResponse;
+import com.example.learnquiz_fe.data.repository.ImageRepository;
 import com.example.learnquiz_fe.ui.adapter.PhotoThumbnailAdapter;
 import com.example.learnquiz_fe.ui.viewmodel.PhotoSessionViewModel;
 import com.example.learnquiz_fe.ui.viewmodel.QuizGenerationViewModel;
 import com.example.learnquiz_fe.utils.Constants;
 import com.example.learnquiz_fe.utils.ImageUtils;
+import com.example.learnquiz_fe.utils.TextPageFilter;
 import com.github.chrisbanes.photoview.PhotoView;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
@@ -46,6 +49,8 @@ import java.util.List;
 public class QuizGenerationActivity extends AppCompatActivity {
     
     private static final String TAG = "QuizGenerationActivity";
+    // Preview bitmap width cap for the zoomable dialog
+    private static final int PREVIEW_MAX_WIDTH = 2048;
     
     // UI Components
     private MaterialToolbar toolbar;
@@ -57,6 +62,10 @@ public class QuizGenerationActivity extends AppCompatActivity {
     private Slider sliderQuestionCount;
     private TextView tvQuestionCountValue;
     private RadioGroup rgVisibility;
+    private RadioGroup rgTextPage;
+    private TextView tvTextPageStats;
+    // Switching back to the previous text page mode after a failed re-encode
+    private boolean revertingTextPageMode = false;
     private TextInputEditText etTimeLimit;
     private MaterialButton btnGenerate;
     private FrameLayout loadingOverlay;
@@ -73,6 +82,9 @@ public class QuizGenerationActivity extends AppCompatActivity {
     private String[] languages;
     private String[] languageCodes;
     
+    // Images whose upload data is still being prepared in the background
+    private int preparingCount;
+    
     // Activity result launchers
     private androidx.activity.result.ActivityResultLauncher<android.content.Intent> filePickerLauncher;
     
@@ -89,6 +101,7 @@ public class QuizGenerationActivity extends AppCompatActivity {
         setupLanguageDropdown();
         setupPhotoGallery();
         setupListeners();
+        setupTextPageMode();
         observeData();
         setupBackPressHandler();
     }
@@ -180,6 +193,8 @@ public class QuizGenerationActivity extends AppCompatActivity {
                             .setTitle(R.string.generation_exit_title)
                             .setMessage(R.string.generation_exit_message)
                             .setPositiveButton(R.string.generation_exit_confirm, (dialog, which) -> {
+                                // Stop encoding/uploading before the payload files are deleted
+                                quizViewModel.cancelGeneration();
                                 sessionViewModel.clearSession();
                                 setEnabled(false);
                                 getOnBackPressedDispatcher().onBackPressed();
@@ -187,6 +202,7 @@ public class QuizGenerationActivity extends AppCompatActivity {
                             .setNegativeButton(R.string.cancel, null)
                             .show();
                 } else {
+                    quizViewModel.cancelGeneration();
                     setEnabled(false);
                     getOnBackPressedDispatcher().onBackPressed();
                 }
@@ -204,6 +220,8 @@ public class QuizGenerationActivity extends AppCompatActivity {
         sliderQuestionCount = findViewById(R.id.sliderQuestionCount);
         tvQuestionCountValue = findViewById(R.id.tvQuestionCountValue);
         rgVisibility = findViewById(R.id.rgVisibility);
+        rgTextPage = findViewById(R.id.rgTextPage);
+        tvTextPageStats = findViewById(R.id.tvTextPageStats);
         etTimeLimit = findViewById(R.id.etTimeLimit);
         btnGenerate = findViewById(R.id.btnGenerate);
         loadingOverlay = findViewById(R.id.loadingOverlay);
@@ -213,7 +231,7 @@ public class QuizGenerationActivity extends AppCompatActivity {
     }
     
     private void initViewModels() {
-        sessionViewModel = PhotoSessionViewModel.getInstance();
+        sessionViewModel = PhotoSessionViewModel.getInstance(this);
         quizViewModel = new ViewModelProvider(this).get(QuizGenerationViewModel.class);
     }
     
@@ -274,6 +292,79 @@ public class QuizGenerationActivity extends AppCompatActivity {
         btnGenerate.setOnClickListener(v -> validateAndGenerate());
     }
     
+    /**
+     * Text page mode toggle: restore the saved mode, and on change re-encode
+     * the photos already in the session so the whole upload uses one mode
+     */
+    private void setupTextPageMode() {
+        rgTextPage.check(textPageButtonFor(ImageRepository.getTextPageMode(this)));
+
+        rgTextPage.setOnCheckedChangeListener((group, checkedId) -> {
+            TextPageFilter.Mode mode = checkedId == R.id.rbTextPageGray ? TextPageFilter.Mode.GRAYSCALE
+                    : checkedId == R.id.rbTextPageThreshold ? TextPageFilter.Mode.THRESHOLD
+                    : TextPageFilter.Mode.NONE;
+            TextPageFilter.Mode previous = ImageRepository.getTextPageMode(this);
+            if (mode == previous) {
+                return;
+            }
+            Log.d(TAG, "Text page mode: " + mode);
+            ImageRepository.setTextPageMode(this, mode);
+            if (sessionViewModel.isEmpty()) {
+                return;
+            }
+
+            showLoading(true);
+            tvLoadingText.setText(getString(R.string.add_photo_processing));
+            ImageRepository repo = new ImageRepository(this);
+            repo.reprocessImages(sessionViewModel.getPhotoSession().getImages(),
+                (successCount, errorCount) -> runOnUiThread(() -> {
+                    boolean wasReverting = revertingTextPageMode;
+                    revertingTextPageMode = false;
+                    sessionViewModel.notifyImagesChanged();
+                    showLoading(false);
+                    if (errorCount > 0) {
+                        Log.w(TAG, "Re-encode failed for " + errorCount + " images");
+                        Toast.makeText(this, getString(R.string.generation_text_page_failed, errorCount),
+                                Toast.LENGTH_LONG).show();
+                        if (!wasReverting) {
+                            // Failed images kept the old mode: switch the others back too,
+                            // so the whole upload uses one mode (only once, no ping-pong)
+                            revertingTextPageMode = true;
+                            rgTextPage.check(textPageButtonFor(previous));
+                        }
+                    }
+                }));
+        });
+    }
+
+    private static int textPageButtonFor(TextPageFilter.Mode mode) {
+        return mode == TextPageFilter.Mode.GRAYSCALE ? R.id.rbTextPageGray
+                : mode == TextPageFilter.Mode.THRESHOLD ? R.id.rbTextPageThreshold
+                : R.id.rbTextPageNone;
+    }
+
+    /**
+     * Total upload size with and without text page preprocessing
+     * Only images that were preprocessed (have a measured baseline) are counted
+     */
+    private void updateTextPageStats(List<CapturedImage> images) {
+        long before = 0;
+        long after = 0;
+        for (CapturedImage image : images) {
+            if (image.getBaselineSize() > 0) {
+                before += image.getBaselineSize();
+                after += image.getPayloadSize();
+            }
+        }
+        if (before == 0) {
+            tvTextPageStats.setVisibility(View.GONE);
+            return;
+        }
+        tvTextPageStats.setText(getString(R.string.generation_text_page_stats,
+            (int) (before / 1024), (int) (after / 1024)));
+        tvTextPageStats.setVisibility(View.VISIBLE);
+    }
+    
     /**
      * Show dialog to choose between camera or file selection
      */
@@ -322,10 +413,11 @@ public class QuizGenerationActivity extends AppCompatActivity {
                 for (int i = 0; i < images.size(); i++) {
                     CapturedImage img = images.get(i);
                     Log.d(TAG, "Image " + i + ": " + img.getId() + 
-                        ", Base64 length: " + (img.getBase64Data() != null ? img.getBase64Data().length() : 0));
+                        ", Payload size: " + img.getPayloadSize());
                 }
                 photoAdapter.setImages(images);
                 updatePhotoGalleryUI(images.size());
+                updateTextPageStats(images);
                 updateGenerateButtonState(images.size());
             } else {
                 Log.d(TAG, "Images list is null in QuizGenerationActivity");
@@ -333,6 +425,20 @@ public class QuizGenerationActivity extends AppCompatActivity {
             }
         });
         
+        // Observe background upload preparation
+        sessionViewModel.getUploadStatus().observe(this, statuses -> {
+            if (statuses == null) return;
+            int preparing = 0;
+            for (UploadStatus status : statuses.values()) {
+                if (status.getState() == UploadStatus.State.QUEUED
+                        || status.getState() == UploadStatus.State.ENCODING) {
+                    preparing++;
+                }
+            }
+            preparingCount = preparing;
+            updatePhotoGalleryUI(sessionViewModel.getCurrentImageCount());
+        });
+        
         // Observe quiz generation result
         quizViewModel.getQuizResult().observe(this, resource -> {
             if (resource == null) return;
@@ -376,6 +482,9 @@ public class QuizGenerationActivity extends AppCompatActivity {
         // Update photo count text
         String countText = imageCount + " " + 
             (imageCount == 1 ? "photo" : "photos");
+        if (preparingCount > 0) {
+            countText += " · " + getString(R.string.generation_preparing_upload, preparingCount);
+        }
         tvPhotoCount.setText(countText);
         
         // Show/hide empty state
@@ -416,37 +525,56 @@ public class QuizGenerationActivity extends AppCompatActivity {
         showLoading(true);
         tvLoadingText.setText(getString(R.string.add_photo_processing));
         
-        com.example.learnquiz_fe.data.repository.ImageRepository repo = 
-            new com.example.learnquiz_fe.data.repository.ImageRepository(this);
-        
-        final int[] processed = {0};
-        final int[] errors = {0};
-        final int totalToProcess = count;
-        
+        List<android.net.Uri> uris = new java.util.ArrayList<>();
+        List<String> mimeTypes = new java.util.ArrayList<>();
         for (int i = 0; i < count; i++) {
             android.net.Uri uri = clipData.getItemAt(i).getUri();
-            processFileUri(uri, repo, () -> {
-                processed[0]++;
-                if (processed[0] + errors[0] >= totalToProcess) {
-                    runOnUiThread(() -> {
-                        showLoading(false);
-                        Toast.makeText(this, 
-                            String.format("Processed: %d, Errors: %d", processed[0], errors[0]),
-                            Toast.LENGTH_SHORT).show();
-                    });
-                }
-            }, () -> {
-                errors[0]++;
-                if (processed[0] + errors[0] >= totalToProcess) {
-                    runOnUiThread(() -> {
-                        showLoading(false);
-                        Toast.makeText(this, 
-                            String.format("Processed: %d, Errors: %d", processed[0], errors[0]),
-                            Toast.LENGTH_SHORT).show();
-                    });
-                }
-            });
+            String mimeType = null;
+            try {
+                mimeType = getContentResolver().getType(uri);
+            } catch (Exception e) {
+                Log.e(TAG, "Error getting mime type", e);
+            }
+            uris.add(uri);
+            mimeTypes.add(mimeType);
         }
+        
+        // Photos and PDFs are processed in parallel (memory-budgeted),
+        // then added to the session in the order they were picked
+        com.example.learnquiz_fe.data.repository.ImageRepository repo = 
+            new com.example.learnquiz_fe.data.repository.ImageRepository(this);
+        repo.processFiles(uris, mimeTypes, new com.example.learnquiz_fe.data.repository.ImageRepository.BatchProgressCallback() {
+            @Override
+            public void onProgress(int index, CapturedImage result, int finished, int total) {
+                runOnUiThread(() -> tvLoadingText.setText(
+                    getString(R.string.add_photo_processing) + " (" + finished + "/" + total + ")"));
+            }
+            
+            @Override
+            public void onComplete(List<CapturedImage> results, int errorCount) {
+                runOnUiThread(() -> {
+                    int added = 0;
+                    int duplicates = 0;
+                    for (CapturedImage image : results) {
+                        if (image == null) {
+                            continue;
+                        }
+                        if (sessionViewModel.isDuplicate(image)) {
+                            duplicates++;
+                        }
+                        if (sessionViewModel.addImage(image)) {
+                            added++;
+                        }
+                    }
+                    showLoading(false);
+                    String summary = String.format("Processed: %d, Errors: %d", added, results.size() - added - duplicates);
+                    if (duplicates > 0) {
+                        summary += String.format(", Duplicates: %d", duplicates);
+                    }
+                    Toast.makeText(QuizGenerationActivity.this, summary, Toast.LENGTH_SHORT).show();
+                });
+            }
+        });
     }
     
     /**
@@ -484,11 +612,13 @@ public class QuizGenerationActivity extends AppCompatActivity {
                 @Override
                 public void onSuccess(com.example.learnquiz_fe.data.model.camera.CapturedImage image) {
                     runOnUiThread(() -> {
+                        boolean duplicate = sessionViewModel.isDuplicate(image);
                         boolean added = sessionViewModel.addImage(image);
                         Log.d(TAG, "PDF added to session: " + added);
                         if (!added) {
                             Toast.makeText(QuizGenerationActivity.this, 
-                                R.string.generation_max_photos_reached, Toast.LENGTH_SHORT).show();
+                                duplicate ? R.string.generation_duplicate_photo : R.string.generation_max_photos_reached,
+                                Toast.LENGTH_SHORT).show();
                         }
                         onComplete.run();
                     });
@@ -543,64 +673,22 @@ public class QuizGenerationActivity extends AppCompatActivity {
         
         // Load image
         try {
-            Bitmap bitmap = ImageUtils.loadBitmapFromUri(this, image.getImageUri());
+            // Crop, rotation and downscale happen in a single decode pass
+            android.graphics.Rect cropRect = null;
+            if (image.hasValidRegion()) {
+                ImageRegion region = image.getRegion();
+                cropRect = region.getScaledBounds();
+                Log.d(TAG, "Display bounds: " + region.getBounds() + ", scaled crop rect: " + cropRect);
+            }
+            
+            ImageUtils.DecodedRegion decoded = ImageUtils.loadBitmapFromUri(
+                this, image.getImageUri(), cropRect, PREVIEW_MAX_WIDTH);
             
-            if (bitmap != null) {
+            if (decoded != null) {
                 Log.d(TAG, "=== showImagePreview() ===");
-                Log.d(TAG, "Loaded bitmap: " + bitmap.getWidth() + "x" + bitmap.getHeight());
-                
-                // Crop to selected region if available
-                if (image.hasValidRegion()) {
-                    ImageRegion region = image.getRegion();
-                    
-                    // ✅ DEBUG: Log region info BEFORE conversion
-                    Log.d(TAG, "Image has valid region");
-                    Log.d(TAG, "Display bounds: " + region.getBounds());
-                    Log.d(TAG, "Scale factors: X=" + region.getScaleX() + ", Y=" + region.getScaleY());
-                    
-                    // Use scaled bounds to get actual pixel coordinates
-                    android.graphics.Rect cropRect = region.getScaledBounds();
-                    
-                    // ✅ DEBUG: Log scaled coordinates
-                    Log.d(TAG, "Scaled crop rect: " + cropRect);
-                    Log.d(TAG, "  Position: (" + cropRect.left + ", " + cropRect.top + ")");
-                    Log.d(TAG, "  Size: " + cropRect.width() + "x" + cropRect.height());
-                    
-                    // Validate crop rect within bitmap bounds
-                    if (cropRect.left >= 0 && cropRect.top >= 0 && 
-                        cropRect.right <= bitmap.getWidth() && 
-                        cropRect.bottom <= bitmap.getHeight() &&
-                        cropRect.width() > 0 && cropRect.height() > 0) {
-                        
-                        Log.d(TAG, "✅ Crop rect VALID, proceeding to crop...");
-                        
-                        Bitmap croppedBitmap = ImageUtils.cropBitmap(bitmap, cropRect);
-                        
-                        if (croppedBitmap != null) {
-                            Log.d(TAG, "✅ Crop SUCCESS: " + croppedBitmap.getWidth() + 
-                                      "x" + croppedBitmap.getHeight());
-                            photoView.setImageBitmap(croppedBitmap);
-                            
-                            // Recycle original if different
-                            if (croppedBitmap != bitmap) {
-                                bitmap.recycle();
-                            }
-                        } else {
-                            Log.e(TAG, "❌ Crop returned null, showing original");
-                            photoView.setImageBitmap(bitmap);
-                        }
-                    } else {
-                        // Region out of bounds, show original
-                        Log.w(TAG, "❌ Crop rect OUT OF BOUNDS");
-                        Log.w(TAG, "  Crop rect: " + cropRect);
-                        Log.w(TAG, "  Bitmap: " + bitmap.getWidth() + "x" + bitmap.getHeight());
-                        photoView.setImageBitmap(bitmap);
-                    }
-                } else {
-                    // No region selected, show full image
-                    Log.d(TAG, "No region selected, showing full image");
-                    photoView.setImageBitmap(bitmap);
-                }
+                Log.d(TAG, "Loaded bitmap: " + decoded.bitmap.getWidth() + "x" + decoded.bitmap.getHeight()
+                        + " from " + decoded.sourceWidth + "x" + decoded.sourceHeight);
+                photoView.setImageBitmap(decoded.bitmap);
             } else if (image.getThumbnail() != null) {
                 // Fallback to thumbnail (already cropped)
                 Log.w(TAG, "Bitmap load failed, using thumbnail");
@@ -802,12 +890,27 @@ public class QuizGenerationActivity extends AppCompatActivity {
                 .append(" px\n");
         }
         
-        // Data size
-        if (image.getBase64Data() != null) {
-            int sizeKB = image.getBase64Data().length() / 1024;
+        // Data size (exact, reported by the encoder)
+        if (image.getPayloadSize() > 0) {
+            long sizeKB = image.getPayloadSize() / 1024;
             info.append("Data Size: ")
                 .append(sizeKB)
                 .append(" KB");
+            if (image.getEncodeQuality() > 0) {
+                info.append(" (")
+                    .append(image.getMimeType().replace("image/", "").toUpperCase())
+                    .append(" q")
+                    .append(image.getEncodeQuality())
+                    .append(", Base64 ")
+                    .append(ImageUtils.getBase64Size(image.getPayloadSize()) / 1024)
+                    .append(" KB)");
+            }
+            // Size the same crop would have had without text page preprocessing
+            if (image.getBaselineSize() > 0) {
+                info.append("\nBefore Text Mode: ")
+                    .append(image.getBaselineSize() / 1024)
+                    .append(" KB");
+            }
         }
         
         return info.toString();
@@ -870,16 +973,20 @@ public class QuizGenerationActivity extends AppCompatActivity {
             }
         }
         
-        // Extract base64 images
-        List<String> base64Images = sessionViewModel.getPhotoSession().getBase64Images();
-        if (base64Images.isEmpty()) {
+        // Collect images ready for upload (payloads are streamed, not copied)
+        List<CapturedImage> uploadImages = new java.util.ArrayList<>();
+        for (CapturedImage image : images) {
+            if (image.isReadyForUpload()) {
+                uploadImages.add(image);
+            }
+        }
+        if (uploadImages.isEmpty()) {
             Toast.makeText(this, R.string.generation_error_processing, Toast.LENGTH_SHORT).show();
             return;
         }
         
-        // Create request
+        // Create request settings
         GenerateQuizRequest request = new GenerateQuizRequest();
-        request.setImages(base64Images);
         request.setLanguage(languageCode);
         request.setQuestionCount(questionCount);
         request.setVisibility(visibility);
@@ -887,14 +994,19 @@ public class QuizGenerationActivity extends AppCompatActivity {
         request.setFolderId(null); // Optional folder ID
         
         // Validate request
-        if (!request.isValid()) {
+        if (!request.isValidSettings() || uploadImages.size() > Constants.MAX_IMAGES_PER_SESSION) {
             Toast.makeText(this, R.string.generation_error_invalid_request, 
                 Toast.LENGTH_LONG).show();
             return;
         }
         
+        // Images still being prepared are encoded while uploading instead
+        if (!sessionViewModel.areAllImagesEncoded()) {
+            Log.d(TAG, "Generating before all uploads were prepared (" + preparingCount + " pending)");
+        }
+        
         // Generate quiz
-        quizViewModel.generateQuiz(request);
+        quizViewModel.generateQuiz(request, uploadImages);
     }
     
     private void handleSuccess(GenerateQuizResponse response) {
@@ -913,11 +1025,13 @@ public class QuizGenerationActivity extends AppCompatActivity {
                     response.getTitle(), 
                     response.getQuestions().size()))
                 .setPositiveButton(R.string.generation_view_quiz, (dialog, which) -> {
-                    // Store quiz data in holder to avoid TransactionTooLargeException
-                    com.example.learnquiz_fe.utils.QuizDataHolder.getInstance().setQuizResponse(response);
+                    // Only the store key goes in the Intent (avoids TransactionTooLargeException)
+                    String quizKey = com.example.learnquiz_fe.data.repository.QuizSessionStore
+                        .getInstance(QuizGenerationActivity.this).putQuiz(response);
                     
                     // Navigate to QuizTakingActivity
                     Intent intent = new Intent(QuizGenerationActivity.this, QuizTakingActivity.class);
+                    intent.putExtra(QuizTakingActivity.EXTRA_QUIZ_KEY, quizKey);
                     startActivity(intent);
                     finish();
                 })
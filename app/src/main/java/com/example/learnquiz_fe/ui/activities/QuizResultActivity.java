@@ -5,6 +5,7 @@ import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -12,17 +13,16 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.learnquiz_fe.MainActivity;
 import com.example.learnquiz_fe.R;
+import com.example.learnquiz_fe.data.model.quiz.CompiledQuiz;
 import com.example.learnquiz_fe.data.model.quiz.GenerateQuizResponse;
 import com.example.learnquiz_fe.data.model.quiz.QuizAnswer;
 import com.example.learnquiz_fe.data.model.quiz.QuizQuestion;
+import com.example.learnquiz_fe.data.repository.QuizSessionStore;
 import com.example.learnquiz_fe.ui.adapter.QuizReviewAdapter;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
 import java.util.Locale;
-import java.util.Map;
 
 /**
  * Activity for displaying quiz results and review
@@ -34,8 +34,8 @@ public class QuizResultActivity extends AppCompatActivity {
     public static final String EXTRA_QUIZ_TITLE = "quiz_title";
     public static final String EXTRA_TOTAL_QUESTIONS = "total_questions";
     public static final String EXTRA_CORRECT_ANSWERS = "correct_answers";
-    public static final String EXTRA_QUIZ_DATA = "quiz_data";
-    public static final String EXTRA_USER_ANSWERS = "user_answers";
+    // Key of the quiz and its attempt in QuizSessionStore
+    public static final String EXTRA_QUIZ_KEY = "quiz_key";
     
     // UI Components
     private MaterialToolbar toolbar;
@@ -48,11 +48,13 @@ public class QuizResultActivity extends AppCompatActivity {
     private MaterialButton btnHome;
     
     // Data
+    private String quizKey;
     private String quizTitle;
     private int totalQuestions;
     private int correctAnswers;
     private GenerateQuizResponse quizData;
-    private Map<Integer, Integer> userAnswers;
+    private CompiledQuiz answerKey;
+    private int[] selections;
     
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -66,12 +68,23 @@ public class QuizResultActivity extends AppCompatActivity {
         
         Log.d(TAG, "Received results - Total: " + totalQuestions + ", Correct: " + correctAnswers);
         
-        String quizJson = getIntent().getStringExtra(EXTRA_QUIZ_DATA);
-        String answersJson = getIntent().getStringExtra(EXTRA_USER_ANSWERS);
-        
-        quizData = new Gson().fromJson(quizJson, GenerateQuizResponse.class);
-        userAnswers = new Gson().fromJson(answersJson, 
-            new TypeToken<Map<Integer, Integer>>(){}.getType());
+        // Same parsed quiz and answers the taking screen used
+        quizKey = getIntent().getStringExtra(EXTRA_QUIZ_KEY);
+        QuizSessionStore.getInstance(this).loadSession(quizKey, this::onSessionLoaded);
+    }
+    
+    private void onSessionLoaded(QuizSessionStore.Session session) {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
+        if (session == null || session.quiz.getQuestions() == null) {
+            Toast.makeText(this, "Error: No quiz data", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+        quizData = session.quiz;
+        answerKey = session.answerKey;
+        selections = session.attempt != null ? session.attempt : answerKey.newAttempt();
         
         initViews();
         setupToolbar();
@@ -136,7 +149,8 @@ public class QuizResultActivity extends AppCompatActivity {
     private void setupReviewList() {
         QuizReviewAdapter adapter = new QuizReviewAdapter(
             quizData.getQuestions(), 
-            userAnswers
+            answerKey,
+            selections
         );
         
         rvReview.setLayoutManager(new LinearLayoutManager(this));
@@ -149,8 +163,9 @@ public class QuizResultActivity extends AppCompatActivity {
     }
     
     private void retakeQuiz() {
+        QuizSessionStore.getInstance(this).clearAttempt(quizKey);
         Intent intent = new Intent(this, QuizTakingActivity.class);
-        intent.putExtra(QuizTakingActivity.EXTRA_QUIZ_DATA, new Gson().toJson(quizData));
+        intent.putExtra(QuizTakingActivity.EXTRA_QUIZ_KEY, quizKey);
         startActivity(intent);
         finish();
     }
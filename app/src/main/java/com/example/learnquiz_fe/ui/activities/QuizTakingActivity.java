@@ -17,23 +17,23 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.learnquiz_fe.R;
+import com.example.learnquiz_fe.data.model.quiz.CompiledQuiz;
 import com.example.learnquiz_fe.data.model.quiz.GenerateQuizResponse;
 import com.example.learnquiz_fe.data.model.quiz.QuizAnswer;
 import com.example.learnquiz_fe.data.model.quiz.QuizQuestion;
 import com.example.learnquiz_fe.data.model.quizhistory.SubmitQuizRequestDTO;
 import com.example.learnquiz_fe.data.model.quizhistory.SubmitQuizResponseDTO;
 import com.example.learnquiz_fe.data.model.quizhistory.SubmittedAnswerDTO;
+import com.example.learnquiz_fe.data.repository.AttemptJournal;
 import com.example.learnquiz_fe.data.repository.QuizHistoryRepository;
+import com.example.learnquiz_fe.data.repository.QuizSessionStore;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
-import com.google.gson.Gson;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 /**
  * Activity for taking a quiz
@@ -42,7 +42,8 @@ import java.util.Map;
 public class QuizTakingActivity extends AppCompatActivity {
 
     private static final String TAG = "QuizTakingActivity";
-    public static final String EXTRA_QUIZ_DATA = "quiz_data";
+    // Key of the quiz in QuizSessionStore
+    public static final String EXTRA_QUIZ_KEY = "quiz_key";
 
     // UI Components
     private MaterialToolbar toolbar;
@@ -58,43 +59,65 @@ public class QuizTakingActivity extends AppCompatActivity {
     private MaterialButton btnSubmit;
     private ColorStateList defaultCardBackgroundColor;
     // Data
+    private String quizKey;
     private GenerateQuizResponse quizData;
+    private CompiledQuiz answerKey;
     private List<QuizQuestion> questions;
     private int currentQuestionIndex = 0;
-    private Map<Integer, Integer> userAnswers; // questionIndex -> answerIndex
-    private Map<Integer, Boolean> answerResults; // questionIndex -> isCorrect
+    private int[] selections; // questionIndex -> answerIndex, CompiledQuiz.TIMED_OUT / UNANSWERED
     private CountDownTimer questionTimer;
     private long remainingTimeMs;
     private int timeLimitPerQuestion; // seconds
     private boolean answerSelected = false; // Track if answer is selected for current question
     private QuizHistoryRepository quizHistoryRepository;
     private boolean isSubmittingQuiz = false;
+    private AttemptJournal journal;
+    private long resumeRemainingMs = -1; // Timer left on the resumed question, -1 = full time
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_quiz_taking);
 
-        // Get quiz data from QuizDataHolder (to avoid TransactionTooLargeException)
-        quizData = com.example.learnquiz_fe.utils.QuizDataHolder.getInstance().getAndClearQuizResponse();
-        // Fallback: Try to get from intent if holder is empty (for backward compatibility)
-        if (quizData == null) {
-            String quizJson = getIntent().getStringExtra(EXTRA_QUIZ_DATA);
-            if (quizJson != null) {
-                quizData = new Gson().fromJson(quizJson, GenerateQuizResponse.class);
-            }
-        }
+        // Only the key travels in the Intent; the quiz itself is shared via the store
+        // (also survives process death, the recreated Intent carries the same key)
+        quizKey = getIntent().getStringExtra(EXTRA_QUIZ_KEY);
+        QuizSessionStore.getInstance(this).loadSession(quizKey, this::onSessionLoaded);
+    }
 
+    private void onSessionLoaded(QuizSessionStore.Session session) {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
         // Validate quiz data
-        if (quizData == null || quizData.getQuestions() == null || quizData.getQuestions().isEmpty()) {
+        if (session == null || session.quiz.getQuestions() == null || session.quiz.getQuestions().isEmpty()) {
             Toast.makeText(this, "Error: No quiz data", Toast.LENGTH_SHORT).show();
             finish();
             return;
         }
 
+        quizData = session.quiz;
         questions = quizData.getQuestions();
-        userAnswers = new HashMap<>();
-        answerResults = new HashMap<>();
+        answerKey = session.answerKey;
+        selections = answerKey.newAttempt();
+
+        // Resume an attempt interrupted by process death, otherwise start a new journal
+        journal = AttemptJournal.open(this, quizKey);
+        int startIndex = 0;
+        AttemptJournal.Snapshot snapshot = journal.restore(questions.size());
+        if (snapshot != null) {
+            selections = snapshot.selections;
+            startIndex = snapshot.currentIndex;
+            resumeRemainingMs = snapshot.remainingMs;
+            int answered = snapshot.getAnsweredCount();
+            Log.d(TAG, "Resuming attempt at question " + (startIndex + 1) + ", " + answered + " answered");
+            if (answered > 0) {
+                Toast.makeText(this, getString(R.string.quiz_resumed, answered, questions.size()),
+                        Toast.LENGTH_SHORT).show();
+            }
+        } else {
+            journal.start(questions.size());
+        }
         timeLimitPerQuestion = quizData.getQuizExamTimeLimit();
 
         // Initialize repository
@@ -103,7 +126,7 @@ public class QuizTakingActivity extends AppCompatActivity {
         initViews();
         setupToolbar();
         setupListeners();
-        displayQuestion(0);
+        displayQuestion(startIndex);
         setupBackPressHandler();
     }
 
@@ -189,6 +212,7 @@ public class QuizTakingActivity extends AppCompatActivity {
         }
 
         currentQuestionIndex = index;
+        journal.recordPosition(index);
         answerSelected = false; // Reset for new question
         QuizQuestion question = questions.get(index);
 
@@ -219,11 +243,11 @@ public class QuizTakingActivity extends AppCompatActivity {
         }
 
         // Check if this question was already answered
-        if (userAnswers.containsKey(index)) {
+        if (CompiledQuiz.isAnswered(selections[index])) {
             answerSelected = true;
-            int answerIndex = userAnswers.get(index);
+            int answerIndex = selections[index];
 
-            if (answerIndex == -1) {
+            if (answerIndex == CompiledQuiz.TIMED_OUT) {
                 // question is timeout - use white text on dark gray
                 tvQuestion.setTextColor(getColor(android.R.color.white));
 
@@ -233,7 +257,7 @@ public class QuizTakingActivity extends AppCompatActivity {
                     rb.setTextColor(getColor(android.R.color.white)); // White text
 
                     // Highlight right answer
-                    if (question.getAnswers().get(i).isTrue()) {
+                    if (answerKey.isCorrectOption(index, i)) {
                         rb.setTypeface(null, android.graphics.Typeface.BOLD);
                         rb.setTextSize(17);
                         rb.setAlpha(1.0f);
@@ -258,7 +282,7 @@ public class QuizTakingActivity extends AppCompatActivity {
         // Update button states
         btnPrevious.setEnabled(index > 0);
 
-        if (answerSelected || userAnswers.containsKey(index)) {
+        if (answerSelected || CompiledQuiz.isAnswered(selections[index])) {
             // Already answered - show next/submit button
             if (index < questions.size() - 1) {
                 btnNext.setVisibility(View.VISIBLE);
@@ -304,7 +328,8 @@ public class QuizTakingActivity extends AppCompatActivity {
         if (selectedIndex == -1) return;
 
         // Save answer
-        userAnswers.put(currentQuestionIndex, selectedIndex);
+        selections[currentQuestionIndex] = selectedIndex;
+        journal.recordAnswer(currentQuestionIndex, selectedIndex);
 
         QuizQuestion question = questions.get(currentQuestionIndex);
         showAnswerFeedback(selectedIndex, question);
@@ -392,21 +417,15 @@ public class QuizTakingActivity extends AppCompatActivity {
 
     // Replace the showAnswerFeedback method with this improved version:
     private void showAnswerFeedback(int selectedIndex, QuizQuestion question) {
-        QuizAnswer selectedAnswer = question.getAnswers().get(selectedIndex);
-        boolean isCorrect = selectedAnswer.isTrue();
-
-        // Save result
-        answerResults.put(currentQuestionIndex, isCorrect);
+        boolean isCorrect = answerKey.isCorrectOption(currentQuestionIndex, selectedIndex);
 
         // Disable all radio buttons
         for (int i = 0; i < rgAnswers.getChildCount(); i++) {
             RadioButton rb = (RadioButton) rgAnswers.getChildAt(i);
             rb.setEnabled(false);
 
-            QuizAnswer answer = question.getAnswers().get(i);
-
             // Highlight correct answer - use white text for better contrast
-            if (answer.isTrue()) {
+            if (answerKey.isCorrectOption(currentQuestionIndex, i)) {
                 rb.setTextColor(getColor(android.R.color.white));
                 rb.setTypeface(null, android.graphics.Typeface.BOLD);
                 rb.setTextSize(17); // Slightly larger for emphasis
@@ -488,13 +507,18 @@ public class QuizTakingActivity extends AppCompatActivity {
         }
 
         // Don't start timer if already answered
-        if (answerSelected || userAnswers.containsKey(currentQuestionIndex)) {
+        if (answerSelected || CompiledQuiz.isAnswered(selections[currentQuestionIndex])) {
             tvTimer.setText("--:--");
             tvTimer.setTextColor(getColor(android.R.color.darker_gray));
             return;
         }
 
         remainingTimeMs = timeLimitPerQuestion * 1000L;
+        if (resumeRemainingMs > 0) {
+            // Continue the resumed question's timer where it stopped
+            remainingTimeMs = Math.min(resumeRemainingMs, remainingTimeMs);
+        }
+        resumeRemainingMs = -1;
 
         questionTimer = new CountDownTimer(remainingTimeMs, 1000) {
             @Override
@@ -512,10 +536,8 @@ public class QuizTakingActivity extends AppCompatActivity {
                 answerSelected = true;
 
                 // Mark as timeout
-                userAnswers.put(currentQuestionIndex, -1);
-
-                // Get current question
-                QuizQuestion question = questions.get(currentQuestionIndex);
+                selections[currentQuestionIndex] = CompiledQuiz.TIMED_OUT;
+                journal.recordAnswer(currentQuestionIndex, CompiledQuiz.TIMED_OUT);
 
                 // Update question text to white for contrast
                 tvQuestion.setTextColor(getColor(android.R.color.white));
@@ -527,7 +549,7 @@ public class QuizTakingActivity extends AppCompatActivity {
                     rb.setTextColor(getColor(android.R.color.white)); // White text
 
                     // Highlight correct answer with bold
-                    if (question.getAnswers().get(i).isTrue()) {
+                    if (answerKey.isCorrectOption(currentQuestionIndex, i)) {
                         rb.setTypeface(null, android.graphics.Typeface.BOLD);
                         rb.setTextSize(17);
                         rb.setAlpha(1.0f);
@@ -536,9 +558,6 @@ public class QuizTakingActivity extends AppCompatActivity {
                     }
                 }
 
-                // Save as incorrect (no answer)
-                answerResults.put(currentQuestionIndex, false);
-
                 // Update card to darker gray with better contrast
                 cardQuestion.setCardBackgroundColor(getColor(R.color.gray_600)); // Darker gray
                 cardQuestion.setStrokeColor(getColor(R.color.gray_800));
@@ -623,6 +642,7 @@ public class QuizTakingActivity extends AppCompatActivity {
                     if (questionTimer != null) {
                         questionTimer.cancel();
                     }
+                    journal.discard();
                     finish();
                 })
                 .setNegativeButton(R.string.cancel, null)
@@ -679,6 +699,22 @@ public class QuizTakingActivity extends AppCompatActivity {
                         .setCancelable(false)
                         .show();
             }
+
+            @Override
+            public void onQueued(String errorMessage) {
+                isSubmittingQuiz = false;
+                dismissLoadingDialog();
+
+                Log.w(TAG, "Quiz submission queued: " + errorMessage);
+
+                // The outbox delivers the attempt later; show local results meanwhile
+                new AlertDialog.Builder(QuizTakingActivity.this)
+                        .setTitle(R.string.quiz_submission_queued_title)
+                        .setMessage(R.string.quiz_submission_queued_message)
+                        .setPositiveButton("OK", (dialog, which) -> showLocalResults())
+                        .setCancelable(false)
+                        .show();
+            }
         });
     }
 
@@ -688,12 +724,13 @@ public class QuizTakingActivity extends AppCompatActivity {
     private SubmitQuizRequestDTO buildSubmissionRequest() {
         SubmitQuizRequestDTO request = new SubmitQuizRequestDTO();
         request.setQuizId(quizData.getId());
+        request.setAttemptId(journal.getAttemptId());
 
         List<SubmittedAnswerDTO> submittedAnswers = new ArrayList<>();
 
         for (int i = 0; i < questions.size(); i++) {
             QuizQuestion question = questions.get(i);
-            Integer answerIndex = userAnswers.get(i);
+            int answerIndex = selections[i];
 
             // Create submission for each question
             SubmittedAnswerDTO submittedAnswer = new SubmittedAnswerDTO();
@@ -707,7 +744,7 @@ public class QuizTakingActivity extends AppCompatActivity {
 
             // Get selected answer text
             List<String> selectedAnswers = new ArrayList<>();
-            if (answerIndex != null && answerIndex >= 0 && answerIndex < question.getAnswers().size()) {
+            if (answerIndex >= 0 && answerIndex < question.getAnswers().size()) {
                 QuizAnswer answer = question.getAnswers().get(answerIndex);
                 selectedAnswers.add(answer.getAnswer());
             }
@@ -735,13 +772,13 @@ public class QuizTakingActivity extends AppCompatActivity {
                 + ", Percentage: " + response.getPercentage());
 
         // Navigate to result screen with server data
+        QuizSessionStore.getInstance(this).putAttempt(quizKey, selections);
+        journal.discard();
         Intent intent = new Intent(this, QuizResultActivity.class);
-        quizData.setImageSource(""); // OPTIMIZE
         intent.putExtra(QuizResultActivity.EXTRA_QUIZ_TITLE, quizData.getTitle());
         intent.putExtra(QuizResultActivity.EXTRA_TOTAL_QUESTIONS, response.getTotalQuestions());
         intent.putExtra(QuizResultActivity.EXTRA_CORRECT_ANSWERS, response.getCorrectCount());
-        intent.putExtra(QuizResultActivity.EXTRA_QUIZ_DATA, new Gson().toJson(quizData));
-        intent.putExtra(QuizResultActivity.EXTRA_USER_ANSWERS, convertMapToJson(userAnswers));
+        intent.putExtra(QuizResultActivity.EXTRA_QUIZ_KEY, quizKey);
         // Add server-specific data
         intent.putExtra("server_score", response.getScore());
         intent.putExtra("server_percentage", response.getPercentage());
@@ -761,30 +798,19 @@ public class QuizTakingActivity extends AppCompatActivity {
             questionTimer.cancel();
         }
 
-        // Calculate score from userAnswers by checking correct answers
-        int correctCount = 0;
-        for (int i = 0; i < questions.size(); i++) {
-            Integer answerIndex = userAnswers.get(i);
-            if (answerIndex != null) {
-                QuizQuestion question = questions.get(i);
-                if (answerIndex < question.getAnswers().size()) {
-                    QuizAnswer selectedAnswer = question.getAnswers().get(answerIndex);
-                    if (selectedAnswer.isTrue()) {
-                        correctCount++;
-                    }
-                }
-            }
-        }
+        // One pass over the selection vector against the compiled answer key
+        int correctCount = answerKey.score(selections);
 
         Log.d(TAG, "Local results - Correct: " + correctCount + "/" + questions.size());
 
         // Navigate to result screen
+        QuizSessionStore.getInstance(this).putAttempt(quizKey, selections);
+        journal.discard();
         Intent intent = new Intent(this, QuizResultActivity.class);
         intent.putExtra(QuizResultActivity.EXTRA_QUIZ_TITLE, quizData.getTitle());
         intent.putExtra(QuizResultActivity.EXTRA_TOTAL_QUESTIONS, questions.size());
         intent.putExtra(QuizResultActivity.EXTRA_CORRECT_ANSWERS, correctCount);
-        intent.putExtra(QuizResultActivity.EXTRA_QUIZ_DATA, new Gson().toJson(quizData));
-        intent.putExtra(QuizResultActivity.EXTRA_USER_ANSWERS, convertMapToJson(userAnswers));
+        intent.putExtra(QuizResultActivity.EXTRA_QUIZ_KEY, quizKey);
         startActivity(intent);
         finish();
     }
@@ -810,8 +836,17 @@ public class QuizTakingActivity extends AppCompatActivity {
         }
     }
 
-    private String convertMapToJson(Map<Integer, Integer> map) {
-        return new Gson().toJson(map);
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if (journal == null || isFinishing()) {
+            return;
+        }
+        // Remember the running timer and get everything to disk before the process can die
+        if (!answerSelected && !CompiledQuiz.isAnswered(selections[currentQuestionIndex])) {
+            journal.recordTimer(currentQuestionIndex, remainingTimeMs);
+        }
+        journal.flush();
     }
 
     @Override
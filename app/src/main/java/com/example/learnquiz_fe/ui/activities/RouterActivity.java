@@ -7,6 +7,7 @@ import android.os.Bundle;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.learnquiz_fe.MainActivity;
+import com.example.learnquiz_fe.data.network.RetrofitClient;
 
 /** * Activity điều hướng không có giao diện.
  * Đây là điểm khởi đầu của ứng dụng.
@@ -19,6 +20,10 @@ public class RouterActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
+        // Khởi tạo RetrofitClient và mở sẵn kết nối tới server trên background thread,
+        // để request đầu tiên của màn hình tiếp theo không phải chờ DNS + TCP + TLS
+        RetrofitClient.prewarm(this);
+
         // Lấy SharedPreferences
         SharedPreferences prefs = getSharedPreferences("app_prefs", Context.MODE_PRIVATE);
         String token = prefs.getString("auth_token", null);
@@ -17,13 +17,13 @@ import androidx.constraintlayout.widget.ConstraintLayout;
 
 import com.bumptech.glide.Glide;
 import com.example.learnquiz_fe.R;
-import com.example.learnquiz_fe.data.dtos.quiz.QuizQuestionDTO;
-import com.example.learnquiz_fe.data.dtos.quiz.QuizResponseDTO;
-import com.example.learnquiz_fe.data.model.quiz.GenerateQuizResponse;
+import com.example.learnquiz_fe.data.model.quiz.QuizDetail;
+import com.example.learnquiz_fe.data.model.quiz.QuizQuestion;
 import com.example.learnquiz_fe.data.repository.QuizRepository;
+import com.example.learnquiz_fe.data.repository.QuizSessionStore;
+import com.example.learnquiz_fe.data.repository.RequestCoalescer;
 import com.example.learnquiz_fe.ui.activities.QuizTakingActivity;
 import com.example.learnquiz_fe.ui.activities.feedback.QuizFeedbackActivity;
-import com.example.learnquiz_fe.utils.QuizDataHolder;
 import com.google.android.flexbox.FlexboxLayout;
 import com.google.android.material.button.MaterialButton;
 
@@ -49,6 +49,8 @@ public class QuizDetailActivity extends AppCompatActivity {
     private ProgressBar progressBar;
     private ConstraintLayout mainContent;
     private String quizId;
+    private RequestCoalescer.Handle detailRequest;
+    private RequestCoalescer.Handle startRequest;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -78,6 +80,14 @@ public class QuizDetailActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // Stop callbacks into a destroyed activity; shared calls keep running for other screens
+        if (detailRequest != null) detailRequest.cancel();
+        if (startRequest != null) startRequest.cancel();
+    }
+
     public static void start(Context context, int quizId) {
         Intent intent = new Intent(context, QuizDetailActivity.class);
         intent.putExtra("quiz_id", quizId);
@@ -133,14 +143,27 @@ public class QuizDetailActivity extends AppCompatActivity {
     }
 
     // 🔹 Load quiz details from backend
+    // The parsed detail is kept by QuizRepository, so "Start" reuses it without a second fetch
     private void loadQuizDetails(String quizId) {
-        progressBar.setVisibility(View.VISIBLE);
-        mainContent.setVisibility(View.GONE);
-        if (tvWriteReviewLink != null) tvWriteReviewLink.setVisibility(View.GONE);
+        QuizDetail cached = quizRepository.getCachedQuizDetail(quizId);
+        if (cached != null) {
+            // Hiển thị ngay bản đã tải, làm mới ở nền (rating, plays)
+            displayQuizDetails(cached);
+            progressBar.setVisibility(View.GONE);
+            mainContent.setVisibility(View.VISIBLE);
+            if (tvWriteReviewLink != null) tvWriteReviewLink.setVisibility(View.VISIBLE);
+        } else {
+            progressBar.setVisibility(View.VISIBLE);
+            mainContent.setVisibility(View.GONE);
+            if (tvWriteReviewLink != null) tvWriteReviewLink.setVisibility(View.GONE);
+        }
 
-        quizRepository.getQuizDetail(new QuizRepository.GenericCallback<QuizResponseDTO>() {
+        // onCreate + onResume both load: the second call joins the first request,
+        // then the previous callback is dropped so the screen is bound only once
+        RequestCoalescer.Handle previous = detailRequest;
+        detailRequest = quizRepository.getQuizDetail(new QuizRepository.GenericCallback<QuizDetail>() {
             @Override
-            public void onSuccess(QuizResponseDTO data) {
+            public void onSuccess(QuizDetail data) {
                 displayQuizDetails(data);
                 progressBar.setVisibility(View.GONE);
                 mainContent.setVisibility(View.VISIBLE);
@@ -152,12 +175,15 @@ public class QuizDetailActivity extends AppCompatActivity {
                 Toast.makeText(QuizDetailActivity.this, "Error: " + message, Toast.LENGTH_SHORT).show();
                 progressBar.setVisibility(View.GONE);
                 mainContent.setVisibility(View.VISIBLE);
-                finish();
+                if (cached == null) {
+                    finish();
+                }
             }
         }, quizId);
+        if (previous != null) previous.cancel();
     }
 
-    private void displayQuizDetails(QuizResponseDTO data) {
+    private void displayQuizDetails(QuizDetail data) {
         if (data.getImageSource() != null) {
             Glide.with(this)
                     .load(data.getImageSource())
@@ -170,18 +196,18 @@ public class QuizDetailActivity extends AppCompatActivity {
         tvRatingCount.setText(data.getRatingCount() + " ratings");
         tvPlaysCount.setText(String.valueOf(data.getPlaysCount()));
         tvPlaysLabel.setText("plays");
-        tvQuestionsCount.setText(String.valueOf(data.getQuestions().size()));
+        tvQuestionsCount.setText(String.valueOf(data.getQuestionCount()));
         tvQuestionsLabel.setText("questions");
 
         // Total minutes of this quiz
-        int totalMinutes = data.getQuizExamTimeLimit() * data.getQuestions().size() / 60;
+        int totalMinutes = data.getQuizExamTimeLimit() * data.getQuestionCount() / 60;
         var durationText = totalMinutes < 1 ? "<1" : String.valueOf(totalMinutes);
         tvDuration.setText(String.valueOf(durationText));
         tvDurationLabel.setText("minutes");
         // Time limit per question
         tvDurationValue.setText(data.getQuizExamTimeLimit() + "s / question");
 
-        String difficulty = getDifficultyLevel(data.getQuestions().size(), data.getQuizExamTimeLimit());
+        String difficulty = getDifficultyLevel(data.getQuestionCount(), data.getQuizExamTimeLimit());
 //        tvDifficulty.setText(difficulty);
         tvDifficultyValue.setText(difficulty);
 
@@ -212,7 +238,9 @@ public class QuizDetailActivity extends AppCompatActivity {
         Pair<Integer, Integer> types = getQuestionTypes(data.getQuestions());
         tvMultipleChoiceCount.setText(types.first + " questions");
 
-        displayTags(data.getTags());
+        if (data.getTags() != null) {
+            displayTags(data.getTags());
+        }
     }
 
     private String getDifficultyLevel(int questionCount, int timeLimit) {
@@ -222,9 +250,10 @@ public class QuizDetailActivity extends AppCompatActivity {
         else return "Easy";
     }
 
-    private Pair<Integer, Integer> getQuestionTypes(List<QuizQuestionDTO> list) {
+    private Pair<Integer, Integer> getQuestionTypes(List<QuizQuestion> list) {
         int mc = 0, tf = 0;
-        for (QuizQuestionDTO q : list) {
+        if (list == null) return new Pair<>(mc, tf);
+        for (QuizQuestion q : list) {
             if (q.getAnswers().size() == 2 &&
                     q.getAnswers().stream().allMatch(a ->
                             a.getAnswer().equalsIgnoreCase("true") ||
@@ -234,15 +263,10 @@ public class QuizDetailActivity extends AppCompatActivity {
         return new Pair<>(mc, tf);
     }
 
-    private String formatDate(String iso) {
-        try {
-            SimpleDateFormat input = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.getDefault());
-            SimpleDateFormat output = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-            Date date = input.parse(iso);
-            return date != null ? output.format(date) : iso;
-        } catch (Exception e) {
-            return iso;
-        }
+    private String formatDate(Date date) {
+        if (date == null) return "";
+        SimpleDateFormat output = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
+        return output.format(date);
     }
 
     private void displayTags(List<String> tags) {
@@ -273,32 +297,28 @@ public class QuizDetailActivity extends AppCompatActivity {
             return;
         }
 
-        // 2. Hiển thị trạng thái loading
+        // 2. Đã có dữ liệu từ lần tải chi tiết: mở ngay, không gọi API lần nữa
+        QuizDetail cached = quizRepository.getCachedQuizDetail(quizId);
+        if (cached != null) {
+            openQuiz(cached);
+            return;
+        }
+
+        // 3. Hiển thị trạng thái loading
         progressBar.setVisibility(View.VISIBLE);
         mainContent.setAlpha(0.5f);
         btnStartQuiz.setEnabled(false);
 
-        // 3. Gọi hàm getQuizDetail với đúng QuizCallback
-        quizRepository.getQuizDetail(quizId, new QuizRepository.QuizCallback() {
+        // 4. Chưa tải xong: tham gia request chi tiết đang chạy (cùng key, không gọi lại)
+        if (startRequest != null) startRequest.cancel();
+        startRequest = quizRepository.getQuizDetail(new QuizRepository.GenericCallback<QuizDetail>() {
             @Override
-            public void onSuccess(GenerateQuizResponse response) {
+            public void onSuccess(QuizDetail response) {
                 // Tắt loading
                 progressBar.setVisibility(View.GONE);
                 mainContent.setAlpha(1.0f);
                 btnStartQuiz.setEnabled(true);
-
-                // 4. Kiểm tra dữ liệu trả về
-                if (response != null && response.getQuestions() != null && !response.getQuestions().isEmpty()) {
-
-                    // 5. Đặt dữ liệu vào QuizDataHolder
-                    QuizDataHolder.getInstance().setQuizResponse(response);
-
-                    // 6. Chuyển sang màn hình làm bài
-                    Intent intent = new Intent(QuizDetailActivity.this, QuizTakingActivity.class);
-                    startActivity(intent);
-                } else {
-                    Toast.makeText(QuizDetailActivity.this, "Failed to get quiz data or quiz has no questions.", Toast.LENGTH_LONG).show();
-                }
+                openQuiz(response);
             }
 
             @Override
@@ -309,7 +329,23 @@ public class QuizDetailActivity extends AppCompatActivity {
                 btnStartQuiz.setEnabled(true);
                 Toast.makeText(QuizDetailActivity.this, "Error getting quiz data: " + message, Toast.LENGTH_LONG).show();
             }
-        });
+        }, quizId);
+    }
+
+    private void openQuiz(QuizDetail quiz) {
+        // Kiểm tra dữ liệu trả về
+        if (quiz == null || quiz.getQuestionCount() == 0) {
+            Toast.makeText(this, "Failed to get quiz data or quiz has no questions.", Toast.LENGTH_LONG).show();
+            return;
+        }
+
+        // Đặt dữ liệu vào QuizSessionStore, Intent chỉ mang key
+        String quizKey = QuizSessionStore.getInstance(this).putQuiz(quiz);
+
+        // Chuyển sang màn hình làm bài
+        Intent intent = new Intent(this, QuizTakingActivity.class);
+        intent.putExtra(QuizTakingActivity.EXTRA_QUIZ_KEY, quizKey);
+        startActivity(intent);
     }
 
 
@@ -10,24 +10,27 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.learnquiz_fe.R;
+import com.example.learnquiz_fe.data.model.quiz.CompiledQuiz;
 import com.example.learnquiz_fe.data.model.quiz.QuizAnswer;
 import com.example.learnquiz_fe.data.model.quiz.QuizQuestion;
 import com.google.android.material.card.MaterialCardView;
 
 import java.util.List;
-import java.util.Map;
 
 /**
  * Adapter for displaying quiz review with correct/incorrect answers
+ * Correctness comes from the compiled answer key (O(1) per row, no answer list scans)
  */
 public class QuizReviewAdapter extends RecyclerView.Adapter<QuizReviewAdapter.ReviewViewHolder> {
     
     private List<QuizQuestion> questions;
-    private Map<Integer, Integer> userAnswers;
+    private CompiledQuiz answerKey;
+    private int[] selections;
     
-    public QuizReviewAdapter(List<QuizQuestion> questions, Map<Integer, Integer> userAnswers) {
+    public QuizReviewAdapter(List<QuizQuestion> questions, CompiledQuiz answerKey, int[] selections) {
         this.questions = questions;
-        this.userAnswers = userAnswers;
+        this.answerKey = answerKey;
+        this.selections = selections;
     }
     
     @NonNull
@@ -41,23 +44,24 @@ public class QuizReviewAdapter extends RecyclerView.Adapter<QuizReviewAdapter.Re
     @Override
     public void onBindViewHolder(@NonNull ReviewViewHolder holder, int position) {
         QuizQuestion question = questions.get(position);
-        Integer userAnswerIndex = userAnswers.get(position);
+        int userAnswerIndex = position < selections.length
+                ? selections[position] : CompiledQuiz.UNANSWERED;
         
         // Display question number and text
         holder.tvQuestionNumber.setText(String.format("Question %d", position + 1));
         holder.tvQuestion.setText(question.getQuestion());
         
         // Find correct answer
-        QuizAnswer correctAnswer = question.getCorrectAnswer();
+        int correctIndex = answerKey.getCorrectIndex(position);
+        QuizAnswer correctAnswer = correctIndex >= 0 ? question.getAnswers().get(correctIndex) : null;
         
         // Display user's answer
-        if (userAnswerIndex != null && userAnswerIndex >= 0 && 
-            userAnswerIndex < question.getAnswers().size()) {
+        if (userAnswerIndex >= 0 && userAnswerIndex < question.getAnswers().size()) {
             QuizAnswer userAnswer = question.getAnswers().get(userAnswerIndex);
             holder.tvUserAnswer.setText(userAnswer.getAnswer());
             
             // Check if correct
-            if (userAnswer.isTrue()) {
+            if (answerKey.isCorrectOption(position, userAnswerIndex)) {
                 holder.tvUserAnswer.setTextColor(Color.parseColor("#4CAF50")); // Green
                 holder.tvResult.setText("✓ Correct");
                 holder.tvResult.setTextColor(Color.parseColor("#4CAF50"));
@@ -29,6 +29,7 @@ import com.example.learnquiz_fe.data.network.RetrofitClient;
 import com.example.learnquiz_fe.data.repository.QuizRepository;
 import com.example.learnquiz_fe.data.dtos.quiz.QuizResponseDTO;
 import com.example.learnquiz_fe.data.repository.QuizRepository;
+import com.example.learnquiz_fe.data.repository.RequestCoalescer;
 import com.example.learnquiz_fe.ui.adapter.myquizzes.MyQuizAdapter;
 import com.example.learnquiz_fe.ui.fragments.myquizzes.QuizUpdateFragment;
 import com.example.learnquiz_fe.ui.adapter.myquizzes.MyQuizAdapter; // Import MyQuizAdapter
@@ -48,6 +49,7 @@ public class MyQuizzesFragment extends Fragment {
     private ProgressBar progressBar;
     private MyQuizAdapter quizAdapter;
     private QuizRepository quizRepository;
+    private RequestCoalescer.Handle myQuizzesRequest;
     private LinearLayout tvEmptyState;
     private TextView tvQuizCountInfo;
     private MaterialButton btnCreateQuizHeader;
@@ -173,7 +175,9 @@ public class MyQuizzesFragment extends Fragment {
 
     private void loadMyQuizzes() {
         progressBar.setVisibility(View.VISIBLE);
-        quizRepository.getMyQuizzes(new QuizRepository.GenericCallback<List<QuizResponseDTO>>() {
+        // onViewCreated + onResume both load: join the running request, then drop the old callback
+        RequestCoalescer.Handle previous = myQuizzesRequest;
+        myQuizzesRequest = quizRepository.getMyQuizzes(new QuizRepository.GenericCallback<List<QuizResponseDTO>>() {
             @Override
             public void onSuccess(List<QuizResponseDTO> response) {
                 if (!isAdded()) return;
@@ -188,6 +192,7 @@ public class MyQuizzesFragment extends Fragment {
                 // Handle empty or error state
             }
         });
+        if (previous != null) previous.cancel();
     }
 
     private void handleEmptyState(boolean isEmpty) {
@@ -209,6 +214,7 @@ public class MyQuizzesFragment extends Fragment {
     public void onDestroyView() {
         super.onDestroyView();
         // No binding to clean up
+        if (myQuizzesRequest != null) myQuizzesRequest.cancel();
     }
 
     // REMOVED: No longer needed as MyQuizAdapter directly uses QuizResponseDTO
@@ -25,6 +25,7 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 import com.example.learnquiz_fe.R;
 import com.example.learnquiz_fe.data.dtos.quiz.QuizResponseDTO;
 import com.example.learnquiz_fe.data.repository.QuizRepository;
+import com.example.learnquiz_fe.data.repository.RequestCoalescer;
 import com.example.learnquiz_fe.ui.activities.quiz.QuizDetailActivity;
 import com.example.learnquiz_fe.ui.adapter.quiz.QuizListAdapter;
 
@@ -41,6 +42,9 @@ public class HomeFragment extends Fragment {
     private ImageButton btnClear, btnSearch;
     private TextView tvEmptyState;
 
+    // Latest list request of this view; each load replaces it, onDestroyView cancels it
+    private RequestCoalescer.Handle quizzesRequest;
+
     public HomeFragment() {
     }
 
@@ -155,7 +159,7 @@ public class HomeFragment extends Fragment {
 
         progressBar.setVisibility(View.VISIBLE);
         Log.d("QuizListActivity", "Loading public quizzes");
-        quizRepository.getPublicQuizzes(new QuizRepository.GenericCallback<List<QuizResponseDTO>>() {
+        setQuizzesRequest(quizRepository.getPublicQuizzes(new QuizRepository.GenericCallback<List<QuizResponseDTO>>() {
             @Override
             public void onSuccess(List<QuizResponseDTO> quizzes) {
                 Log.d("QuizListActivity", "Loaded " + quizzes.size() + " public quizzes");
@@ -171,15 +175,20 @@ public class HomeFragment extends Fragment {
                 Toast.makeText(requireContext(), message, Toast.LENGTH_SHORT).show();
                 handleEmptyState(adapter.getItemCount() == 0);
             }
-        }, query);
+        }, query));
     }
 
     // Load public quizzes from repository
     // Note that this pass empty query to get all quizzes
     private void loadPublicQuizzes() {
+        loadPublicQuizzes(false);
+    }
+
+    // forceRefresh bypasses the HTTP cache (pull-to-refresh)
+    private void loadPublicQuizzes(boolean forceRefresh) {
         progressBar.setVisibility(View.VISIBLE);
         Log.d("QuizListActivity", "Loading public quizzes");
-        quizRepository.getPublicQuizzes(new QuizRepository.GenericCallback<List<QuizResponseDTO>>() {
+        setQuizzesRequest(quizRepository.getPublicQuizzes(new QuizRepository.GenericCallback<List<QuizResponseDTO>>() {
             @Override
             public void onSuccess(List<QuizResponseDTO> quizzes) {
                 Log.d("QuizListActivity", "Loaded " + quizzes.size() + " public quizzes");
@@ -196,12 +205,12 @@ public class HomeFragment extends Fragment {
                 Toast.makeText(requireContext(), message, Toast.LENGTH_SHORT).show();
                 handleEmptyState(adapter.getItemCount() == 0);
             }
-        }, null);
+        }, null, forceRefresh));
     }
 
     private void loadPublicQuizzesNoProgressBar() {
         Log.d("QuizListActivity", "Loading public quizzes");
-        quizRepository.getPublicQuizzes(new QuizRepository.GenericCallback<List<QuizResponseDTO>>() {
+        setQuizzesRequest(quizRepository.getPublicQuizzes(new QuizRepository.GenericCallback<List<QuizResponseDTO>>() {
             @Override
             public void onSuccess(List<QuizResponseDTO> quizzes) {
                 Log.d("QuizListActivity", "Loaded " + quizzes.size() + " public quizzes");
@@ -216,14 +225,30 @@ public class HomeFragment extends Fragment {
                 Toast.makeText(requireContext(), message, Toast.LENGTH_SHORT).show();
                 handleEmptyState(adapter.getItemCount() == 0);
             }
-        }, null);
+        }, null));
+    }
+
+    private void setQuizzesRequest(RequestCoalescer.Handle request) {
+        RequestCoalescer.Handle previous = quizzesRequest;
+        quizzesRequest = request;
+        // Cancelled after the new one started, so a load joining the same request keeps it alive
+        if (previous != null) previous.cancel();
     }
 
     private void reloadQuizzes() {
         swipeRefreshLayout.setRefreshing(true);
-        loadPublicQuizzes();
+        loadPublicQuizzes(true);
         swipeRefreshLayout.setRefreshing(false);
         handleEmptyState(adapter.getItemCount() == 0);
     }
 
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (quizzesRequest != null) {
+            quizzesRequest.cancel();
+            quizzesRequest = null;
+        }
+    }
+
 }
@@ -1,18 +1,28 @@
 package com.example.learnquiz_fe.ui.viewmodel;
 
+import android.content.Context;
+
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.example.learnquiz_fe.data.model.camera.CapturedImage;
 import com.example.learnquiz_fe.data.model.camera.PhotoSession;
+import com.example.learnquiz_fe.data.model.camera.UploadStatus;
+import com.example.learnquiz_fe.data.repository.QuizRepository;
+import com.example.learnquiz_fe.data.repository.UploadPreEncoder;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * ViewModel for managing PhotoSession across activities
  * Shared between CameraActivity, PhotoPreviewActivity, and QuizGenerationActivity
  * Singleton pattern to ensure single instance across app
+ * Each added image starts preparing its upload data URI in the background right away
+ * ({@link UploadPreEncoder}); per-image readiness is published via {@link #getUploadStatus()}.
  */
 public class PhotoSessionViewModel extends ViewModel {
     
@@ -23,12 +33,25 @@ public class PhotoSessionViewModel extends ViewModel {
     private final MutableLiveData<List<CapturedImage>> imagesLiveData;
     private final MutableLiveData<Integer> imageCountLiveData;
     private final MutableLiveData<Boolean> isFullLiveData;
+    private final MutableLiveData<Map<String, UploadStatus>> uploadStatusLiveData;
+    
+    private final UploadPreEncoder preEncoder;
+    // Image id -> latest status; updated from the encoder thread
+    private final Map<String, UploadStatus> uploadStatuses = new ConcurrentHashMap<>();
+    private final UploadPreEncoder.Listener statusListener = (imageId, status) -> {
+        // replace(): late updates for removed images are dropped
+        if (uploadStatuses.replace(imageId, status) != null) {
+            publishUploadStatus();
+        }
+    };
     
-    private PhotoSessionViewModel() {
+    private PhotoSessionViewModel(Context context) {
         this.photoSession = new PhotoSession();
         this.imagesLiveData = new MutableLiveData<>();
         this.imageCountLiveData = new MutableLiveData<>(0);
         this.isFullLiveData = new MutableLiveData<>(false);
+        this.uploadStatusLiveData = new MutableLiveData<>(new HashMap<>());
+        this.preEncoder = UploadPreEncoder.getInstance(context);
         
         updateLiveData();
     }
@@ -36,9 +59,9 @@ public class PhotoSessionViewModel extends ViewModel {
     /**
      * Get singleton instance
      */
-    public static synchronized PhotoSessionViewModel getInstance() {
+    public static synchronized PhotoSessionViewModel getInstance(Context context) {
         if (instance == null) {
-            instance = new PhotoSessionViewModel();
+            instance = new PhotoSessionViewModel(context.getApplicationContext());
         }
         return instance;
     }
@@ -65,22 +88,42 @@ public class PhotoSessionViewModel extends ViewModel {
     }
     
     /**
-     * Add image to session
-     * @return true if added, false if session is full
+     * Get upload readiness per image id (snapshot map, replaced on every change)
+     */
+    public LiveData<Map<String, UploadStatus>> getUploadStatus() {
+        return uploadStatusLiveData;
+    }
+    
+    /**
+     * Add image to session and start preparing its upload in the background (JSON upload mode)
+     * @return true if added, false if session is full or the image is already in it
      */
     public boolean addImage(CapturedImage image) {
         boolean added = photoSession.addImage(image);
         if (added) {
+            scheduleEncoding(image);
             updateLiveData();
         }
         return added;
     }
     
+    /**
+     * Check whether an identical image (same content key) is already in the session
+     */
+    public boolean isDuplicate(CapturedImage image) {
+        return photoSession.findDuplicate(image) != null;
+    }
+    
     /**
      * Remove image by ID
      */
     public boolean removeImage(String imageId) {
+        // Stop the encoder before cleanup deletes the files it works on
+        preEncoder.cancel(imageId);
         boolean removed = photoSession.removeImage(imageId);
+        if (uploadStatuses.remove(imageId) != null) {
+            publishUploadStatus();
+        }
         if (removed) {
             updateLiveData();
         }
@@ -95,17 +138,22 @@ public class PhotoSessionViewModel extends ViewModel {
     }
     
     /**
-     * Get all Base64 encoded images
+     * Check if all images are ready for upload
      */
-    public List<String> getBase64Images() {
-        return photoSession.getBase64Images();
+    public boolean areAllImagesReady() {
+        return photoSession.areAllImagesReady();
     }
     
     /**
-     * Check if all images are ready for upload
+     * Check if every image's upload data is prepared (Generate sends without encoding)
      */
-    public boolean areAllImagesReady() {
-        return photoSession.areAllImagesReady();
+    public boolean areAllImagesEncoded() {
+        for (CapturedImage image : photoSession.getImages()) {
+            if (!image.isEncoded()) {
+                return false;
+            }
+        }
+        return !photoSession.isEmpty();
     }
     
     /**
@@ -126,7 +174,21 @@ public class PhotoSessionViewModel extends ViewModel {
      * Clear all images
      */
     public void clearSession() {
+        preEncoder.cancelAll();
         photoSession.clear();
+        uploadStatuses.clear();
+        publishUploadStatus();
+        updateLiveData();
+    }
+    
+    /**
+     * Re-publish the image list after images were changed in place (e.g. re-encoded)
+     */
+    public void notifyImagesChanged() {
+        // Replaced payloads lost their prepared data; prepare them again
+        for (CapturedImage image : photoSession.getImages()) {
+            scheduleEncoding(image);
+        }
         updateLiveData();
     }
     
@@ -137,6 +199,19 @@ public class PhotoSessionViewModel extends ViewModel {
         return photoSession;
     }
     
+    private void scheduleEncoding(CapturedImage image) {
+        // Multipart sends payload files / document URIs as they are and never reads .b64 data
+        if (QuizRepository.getPreferredUploadMode() != QuizRepository.UploadMode.JSON_BASE64) {
+            return;
+        }
+        uploadStatuses.putIfAbsent(image.getId(), new UploadStatus(UploadStatus.State.QUEUED, 0));
+        preEncoder.schedule(image, statusListener);
+    }
+    
+    private void publishUploadStatus() {
+        uploadStatusLiveData.postValue(new HashMap<>(uploadStatuses));
+    }
+    
     /**
      * Update all LiveData values
      */
@@ -150,6 +225,7 @@ public class PhotoSessionViewModel extends ViewModel {
     protected void onCleared() {
         super.onCleared();
         // Cleanup resources when ViewModel is destroyed
+        preEncoder.cancelAll();
         photoSession.clear();
     }
 }
@@ -7,9 +7,13 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.example.learnquiz_fe.data.model.camera.CapturedImage;
 import com.example.learnquiz_fe.data.model.quiz.GenerateQuizRequest;
 import com.example.learnquiz_fe.data.model.quiz.GenerateQuizResponse;
 import com.example.learnquiz_fe.data.repository.QuizRepository;
+import com.example.learnquiz_fe.utils.CancellationToken;
+
+import java.util.List;
 
 /**
  * ViewModel for quiz generation process
@@ -19,6 +23,8 @@ public class QuizGenerationViewModel extends AndroidViewModel {
     
     private final QuizRepository quizRepository;
     private final MutableLiveData<Resource<GenerateQuizResponse>> quizResultLiveData;
+    // Token of the running session upload, cancelled when the user backs out
+    private CancellationToken generationToken;
     
     public QuizGenerationViewModel(@NonNull Application application) {
         super(application);
@@ -54,6 +60,30 @@ public class QuizGenerationViewModel extends AndroidViewModel {
         });
     }
     
+    /**
+     * Generate quiz from session images
+     * Sends raw files as multipart when enabled, JSON/Base64 otherwise
+     */
+    public void generateQuiz(GenerateQuizRequest settings, List<CapturedImage> images) {
+        quizResultLiveData.setValue(Resource.loading(null));
+        
+        QuizRepository.UploadMode mode = QuizRepository.getPreferredUploadMode();
+        
+        cancelGeneration();
+        generationToken = new CancellationToken();
+        quizRepository.generateQuiz(settings, images, mode, generationToken, new QuizRepository.QuizCallback() {
+            @Override
+            public void onSuccess(GenerateQuizResponse response) {
+                quizResultLiveData.postValue(Resource.success(response));
+            }
+            
+            @Override
+            public void onError(String message, int errorCode) {
+                quizResultLiveData.postValue(Resource.error(message, errorCode, null));
+            }
+        });
+    }
+    
     /**
      * Generate quiz with authentication
      */
@@ -73,6 +103,23 @@ public class QuizGenerationViewModel extends AndroidViewModel {
         });
     }
     
+    /**
+     * Stop the running session upload (Base64 encoding and HTTP call)
+     * No result is posted for a cancelled generation
+     */
+    public void cancelGeneration() {
+        if (generationToken != null) {
+            generationToken.cancel();
+            generationToken = null;
+        }
+    }
+    
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        cancelGeneration();
+    }
+    
     /**
      * Reset quiz result (clear state)
      */
@@ -0,0 +1,190 @@
+package com.example.learnquiz_fe.utils;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Encodes an upload bitmap to fit a byte budget with the best format and quality
+ * For each format (JPEG, then lossy WebP) the encoder first tries the preferred quality;
+ * if that is over budget it binary-searches down to {@link #MIN_QUALITY}, with a fixed
+ * number of tries per format. The candidate with the highest quality under budget wins;
+ * at equal quality the smaller one. If nothing fits, the smallest candidate is used.
+ * Black-and-white pages can also try lossless PNG, which often beats both for 2-tone content;
+ * there lossy quality buys nothing, so the smallest candidate under budget wins.
+ *
+ * The exact encoded size is part of the result, so callers never need a second
+ * compression pass just to know how big the payload is.
+ */
+public final class AdaptiveImageEncoder {
+
+    private static final String TAG = "AdaptiveImageEncoder";
+
+    public static final int MAX_QUALITY = Constants.JPEG_QUALITY;
+    public static final int MIN_QUALITY = 50;
+    // First try + binary search steps, per format
+    private static final int MAX_TRIES_PER_FORMAT = 4;
+
+    private AdaptiveImageEncoder() {
+    }
+
+    /**
+     * Encoded payload written to disk
+     */
+    public static class Result {
+        public File file;
+        public String mimeType;
+        public int quality;
+        /** Exact encoded size in bytes */
+        public long size;
+        /** Number of compress() calls spent */
+        public int attempts;
+    }
+
+    /**
+     * Encode bitmap into a new file in dir, within targetBytes if possible
+     *
+     * @param bitmap Upload bitmap (already cropped and scaled)
+     * @param targetBytes Byte budget for this image
+     * @param dir Directory for the payload file
+     * @return Chosen encoding; the file holds exactly {@code size} bytes
+     */
+    public static Result encode(Bitmap bitmap, long targetBytes, File dir) throws IOException {
+        return encode(bitmap, targetBytes, dir, false);
+    }
+
+    /**
+     * @param tryPng Also try lossless PNG (for thresholded, two-tone images); the smallest
+     *               fitting candidate then wins instead of the highest quality
+     */
+    public static Result encode(Bitmap bitmap, long targetBytes, File dir, boolean tryPng) throws IOException {
+        Candidate best = search(bitmap, Bitmap.CompressFormat.JPEG, targetBytes);
+        int attempts = best.attempts;
+
+        // Two-tone content: quality differences are invisible, size is what counts
+        boolean smallestWins = tryPng;
+        if (tryPng) {
+            Candidate png = compress(bitmap, Bitmap.CompressFormat.PNG, 100);
+            attempts++;
+            if (isBetter(png, best, targetBytes, smallestWins)) {
+                best = png;
+            }
+        }
+
+        if (Constants.WEBP_UPLOAD_ENABLED) {
+            Candidate webp = search(bitmap, webpFormat(), targetBytes);
+            attempts += webp.attempts;
+            if (isBetter(webp, best, targetBytes, smallestWins)) {
+                best = webp;
+            }
+        }
+
+        String extension;
+        String mimeType;
+        if (best.format == Bitmap.CompressFormat.JPEG) {
+            extension = ".jpg";
+            mimeType = "image/jpeg";
+        } else if (best.format == Bitmap.CompressFormat.PNG) {
+            extension = ".png";
+            mimeType = "image/png";
+        } else {
+            extension = ".webp";
+            mimeType = "image/webp";
+        }
+        File file = File.createTempFile("img_", extension, dir);
+        try (OutputStream out = new FileOutputStream(file)) {
+            best.bytes.writeTo(out);
+        } catch (IOException e) {
+            file.delete();
+            throw e;
+        }
+
+        Result result = new Result();
+        result.file = file;
+        result.mimeType = mimeType;
+        result.quality = best.quality;
+        result.size = best.bytes.size();
+        result.attempts = attempts;
+
+        Log.d(TAG, "Encoded " + bitmap.getWidth() + "x" + bitmap.getHeight() + " as "
+                + result.mimeType + " q=" + result.quality + ", " + result.size + " / "
+                + targetBytes + " bytes in " + attempts + " tries");
+        return result;
+    }
+
+    /**
+     * Highest quality of one format that fits the budget (or its smallest try)
+     */
+    private static Candidate search(Bitmap bitmap, Bitmap.CompressFormat format, long targetBytes) {
+        Candidate first = compress(bitmap, format, MAX_QUALITY);
+        if (first.bytes.size() <= targetBytes) {
+            return first;
+        }
+
+        Candidate fitting = null;
+        Candidate smallest = first;
+        int tries = 1;
+        int low = MIN_QUALITY;
+        int high = MAX_QUALITY - 1;
+        while (low <= high && tries < MAX_TRIES_PER_FORMAT) {
+            int quality = (low + high) >>> 1;
+            Candidate candidate = compress(bitmap, format, quality);
+            tries++;
+            if (candidate.bytes.size() <= targetBytes) {
+                fitting = candidate;
+                low = quality + 1;
+            } else {
+                smallest = candidate;
+                high = quality - 1;
+            }
+        }
+
+        Candidate chosen = fitting != null ? fitting : smallest;
+        chosen.attempts = tries;
+        return chosen;
+    }
+
+    private static boolean isBetter(Candidate candidate, Candidate current, long targetBytes,
+                                    boolean smallestWins) {
+        boolean candidateFits = candidate.bytes.size() <= targetBytes;
+        boolean currentFits = current.bytes.size() <= targetBytes;
+        if (candidateFits != currentFits) {
+            return candidateFits;
+        }
+        if (!smallestWins && candidateFits && candidate.quality != current.quality) {
+            return candidate.quality > current.quality;
+        }
+        return candidate.bytes.size() < current.bytes.size();
+    }
+
+    private static Candidate compress(Bitmap bitmap, Bitmap.CompressFormat format, int quality) {
+        Candidate candidate = new Candidate();
+        candidate.format = format;
+        candidate.quality = quality;
+        candidate.attempts = 1;
+        candidate.bytes = new ByteArrayOutputStream(64 * 1024);
+        bitmap.compress(format, quality, candidate.bytes);
+        return candidate;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat webpFormat() {
+        // Before API 30, WEBP means lossy for any quality below 100
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY
+                : Bitmap.CompressFormat.WEBP;
+    }
+
+    private static class Candidate {
+        Bitmap.CompressFormat format;
+        int quality;
+        int attempts;
+        ByteArrayOutputStream bytes;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.learnquiz_fe.utils;
+
+import android.util.Base64;
+import android.util.Base64OutputStream;
+
+import androidx.annotation.NonNull;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams Base64 (NO_WRAP) from an input stream into any output stream or file
+ * Memory use is one 8 KB buffer, whatever the file size: nothing is collected into a
+ * byte array or String. Each chunk checks the {@link CancellationToken}, and cancelling
+ * also closes the input so a read blocked on a slow provider returns at once.
+ */
+public final class Base64StreamEncoder {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private Base64StreamEncoder() {
+    }
+
+    /**
+     * Encode everything from in into out; closes in, leaves out open
+     *
+     * @param token Cancellation token, or null
+     * @return Number of source bytes read
+     * @throws CancellationToken.CancelledException if the token was cancelled
+     */
+    public static long encode(InputStream in, OutputStream out, CancellationToken token) throws IOException {
+        Runnable closeInput = () -> {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+            }
+        };
+        if (token != null) {
+            token.addOnCancelListener(closeInput);
+        }
+
+        long total = 0;
+        try (InputStream input = in;
+             Base64OutputStream base64Out = new Base64OutputStream(
+                     new NonClosingOutputStream(out), Base64.NO_WRAP)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int len;
+            while (true) {
+                if (token != null) {
+                    token.throwIfCancelled();
+                }
+                try {
+                    len = input.read(buffer);
+                } catch (IOException e) {
+                    // A read failing because cancel() closed the stream is a cancellation
+                    if (token != null) {
+                        token.throwIfCancelled();
+                    }
+                    throw e;
+                }
+                if (len == -1) {
+                    break;
+                }
+                base64Out.write(buffer, 0, len);
+                total += len;
+            }
+        } finally {
+            if (token != null) {
+                token.removeOnCancelListener(closeInput);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Write a complete data URI ("data:<mime>;base64,...") for everything in in
+     * (closed afterwards) into file
+     * A partially written file is deleted on failure or cancellation.
+     *
+     * @return Size of the written file in bytes
+     */
+    public static long encodeToFile(InputStream in, String mimeType, File file,
+                                    CancellationToken token) throws IOException {
+        boolean success = false;
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            out.write(("data:" + mimeType + ";base64,").getBytes(StandardCharsets.US_ASCII));
+            encode(in, out, token);
+            success = true;
+        } finally {
+            if (!success) {
+                file.delete();
+            }
+        }
+        return file.length();
+    }
+
+    /**
+     * Lets Base64OutputStream flush its final padding on close
+     * without closing the underlying stream (e.g. a request sink)
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(@NonNull byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
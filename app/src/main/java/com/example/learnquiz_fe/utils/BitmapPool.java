@@ -0,0 +1,269 @@
+package com.example.learnquiz_fe.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * Size-bucketed pool of mutable bitmaps for the image pipeline
+ * Intermediate bitmaps (decoded samples, crops, resized uploads) and thumbnails are
+ * returned here instead of recycled, and handed out again either through
+ * {@link BitmapFactory.Options#inBitmap} for decodes or via {@link Bitmap#reconfigure}
+ * for canvas targets. Buckets are keyed by allocation size rounded up to a power of two;
+ * a request looks in its own bucket and the next one, so a small thumbnail never pins
+ * a 15 MB buffer.
+ *
+ * Total pooled bytes are capped at 1/8 of the heap; least recently pooled bitmaps are
+ * recycled first. Hit/miss counters are logged on each trim and exposed via getters.
+ */
+public class BitmapPool {
+
+    private static final String TAG = "BitmapPool";
+
+    // Share of the max heap that pooled (idle) bitmaps may use
+    private static final int HEAP_FRACTION = 8;
+
+    private static BitmapPool instance;
+
+    // Bucket (power-of-two bytes) -> bitmaps, most recently pooled last
+    private final HashMap<Long, ArrayDeque<Bitmap>> buckets = new HashMap<>();
+    // All pooled bitmaps in insertion order, for eviction
+    private final LinkedHashSet<Bitmap> lru = new LinkedHashSet<>();
+    private final long maxBytes;
+    private long currentBytes;
+
+    private int hits;
+    private int misses;
+    private int puts;
+    private int evictions;
+
+    private BitmapPool(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public static synchronized BitmapPool getInstance() {
+        if (instance == null) {
+            instance = new BitmapPool(Runtime.getRuntime().maxMemory() / HEAP_FRACTION);
+        }
+        return instance;
+    }
+
+    /**
+     * Bitmap of exactly width x height, cleared to transparent
+     * Reuses a pooled buffer when one is large enough, otherwise allocates
+     */
+    public Bitmap get(int width, int height, Bitmap.Config config) {
+        Bitmap bitmap = take(bytesFor(width, height, config));
+        if (bitmap != null) {
+            bitmap.reconfigure(width, height, config);
+            bitmap.eraseColor(Color.TRANSPARENT);
+            return bitmap;
+        }
+        return Bitmap.createBitmap(width, height, config);
+    }
+
+    /**
+     * Let a BitmapFactory decode write into a pooled buffer
+     * Sets inMutable and, when a large enough bitmap is pooled, inBitmap (BitmapFactory
+     * reconfigures it to the decoded size; region decodes use {@link #setInBitmapExact}).
+     * If the decode then fails with IllegalArgumentException, call
+     * {@link #clearInBitmap} and decode again.
+     *
+     * @param width Expected decoded width (after inSampleSize)
+     * @param height Expected decoded height (after inSampleSize)
+     */
+    public void setInBitmap(BitmapFactory.Options options, int width, int height) {
+        options.inMutable = true;
+        Bitmap.Config config = options.inPreferredConfig != null
+                ? options.inPreferredConfig : Bitmap.Config.ARGB_8888;
+        options.inBitmap = take(bytesFor(width, height, config));
+    }
+
+    /**
+     * Let a BitmapRegionDecoder decode write into a pooled buffer
+     * Unlike BitmapFactory, the region decoder never resizes or reconfigures inBitmap: it
+     * draws into the top-left corner and keeps everything else. So inBitmap is only set
+     * when a pooled bitmap has exactly this width, height and config; otherwise the
+     * decode allocates.
+     *
+     * @param width Expected decoded width (after inSampleSize)
+     * @param height Expected decoded height (after inSampleSize)
+     */
+    public void setInBitmapExact(BitmapFactory.Options options, int width, int height) {
+        options.inMutable = true;
+        Bitmap.Config config = options.inPreferredConfig != null
+                ? options.inPreferredConfig : Bitmap.Config.ARGB_8888;
+        options.inBitmap = takeExact(width, height, config);
+    }
+
+    /**
+     * Undo {@link #setInBitmap} after a failed decode, returning the buffer to the pool
+     */
+    public void clearInBitmap(BitmapFactory.Options options) {
+        if (options.inBitmap != null) {
+            put(options.inBitmap);
+            options.inBitmap = null;
+        }
+    }
+
+    /**
+     * Return a bitmap that is no longer drawn or referenced anywhere
+     * Immutable bitmaps cannot be reused and are recycled right away.
+     */
+    public void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) {
+            return;
+        }
+        if (!bitmap.isMutable() || bitmap.getAllocationByteCount() > maxBytes) {
+            bitmap.recycle();
+            return;
+        }
+
+        synchronized (this) {
+            if (!lru.add(bitmap)) {
+                return;
+            }
+            long bucket = bucketFor(bitmap.getAllocationByteCount());
+            ArrayDeque<Bitmap> deque = buckets.get(bucket);
+            if (deque == null) {
+                deque = new ArrayDeque<>();
+                buckets.put(bucket, deque);
+            }
+            deque.addLast(bitmap);
+            currentBytes += bitmap.getAllocationByteCount();
+            puts++;
+            trimTo(maxBytes);
+        }
+    }
+
+    /**
+     * Recycle everything pooled (e.g. on low memory)
+     */
+    public synchronized void clear() {
+        trimTo(0);
+    }
+
+    public synchronized int getHitCount() {
+        return hits;
+    }
+
+    public synchronized int getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getPooledBytes() {
+        return currentBytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "BitmapPool{hits=" + hits + ", misses=" + misses + ", puts=" + puts
+                + ", evictions=" + evictions + ", pooled=" + (currentBytes / 1024) + "/"
+                + (maxBytes / 1024) + " KB}";
+    }
+
+    /**
+     * Remove a pooled bitmap of at least minBytes from its own or the next bucket
+     */
+    private synchronized Bitmap take(long minBytes) {
+        long bucket = bucketFor(minBytes);
+        for (int step = 0; step < 2; step++, bucket <<= 1) {
+            ArrayDeque<Bitmap> deque = buckets.get(bucket);
+            if (deque == null) {
+                continue;
+            }
+            Iterator<Bitmap> iterator = deque.descendingIterator();
+            while (iterator.hasNext()) {
+                Bitmap candidate = iterator.next();
+                if (candidate.getAllocationByteCount() >= minBytes) {
+                    iterator.remove();
+                    if (deque.isEmpty()) {
+                        buckets.remove(bucket);
+                    }
+                    lru.remove(candidate);
+                    currentBytes -= candidate.getAllocationByteCount();
+                    hits++;
+                    return candidate;
+                }
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Remove a pooled bitmap of exactly width x height in config
+     */
+    private synchronized Bitmap takeExact(int width, int height, Bitmap.Config config) {
+        long bucket = bucketFor(bytesFor(width, height, config));
+        // Pooled bitmaps are bucketed by allocation size, which may be a larger buffer
+        // reconfigured down; look in the same two buckets as take()
+        for (int step = 0; step < 2; step++, bucket <<= 1) {
+            ArrayDeque<Bitmap> deque = buckets.get(bucket);
+            if (deque == null) {
+                continue;
+            }
+            Iterator<Bitmap> iterator = deque.descendingIterator();
+            while (iterator.hasNext()) {
+                Bitmap candidate = iterator.next();
+                if (candidate.getWidth() == width && candidate.getHeight() == height
+                        && candidate.getConfig() == config) {
+                    iterator.remove();
+                    if (deque.isEmpty()) {
+                        buckets.remove(bucket);
+                    }
+                    lru.remove(candidate);
+                    currentBytes -= candidate.getAllocationByteCount();
+                    hits++;
+                    return candidate;
+                }
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    private void trimTo(long targetBytes) {
+        int evicted = 0;
+        Iterator<Bitmap> oldest = lru.iterator();
+        while (currentBytes > targetBytes && oldest.hasNext()) {
+            Bitmap bitmap = oldest.next();
+            oldest.remove();
+            long bucket = bucketFor(bitmap.getAllocationByteCount());
+            ArrayDeque<Bitmap> deque = buckets.get(bucket);
+            if (deque != null) {
+                deque.remove(bitmap);
+                if (deque.isEmpty()) {
+                    buckets.remove(bucket);
+                }
+            }
+            currentBytes -= bitmap.getAllocationByteCount();
+            bitmap.recycle();
+            evicted++;
+        }
+        evictions += evicted;
+        if (evicted > 0) {
+            Log.d(TAG, toString());
+        }
+    }
+
+    private static long bytesFor(int width, int height, Bitmap.Config config) {
+        int bytesPerPixel = config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444 ? 2
+                : config == Bitmap.Config.ALPHA_8 ? 1 : 4;
+        return (long) width * height * bytesPerPixel;
+    }
+
+    /**
+     * Smallest power of two >= bytes
+     */
+    private static long bucketFor(long bytes) {
+        long bucket = Long.highestOneBit(Math.max(1, bytes));
+        return bucket < bytes ? bucket << 1 : bucket;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.learnquiz_fe.utils;
+
+import android.util.Log;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cooperative cancellation shared between a screen and the work it started
+ * Long-running loops call {@link #throwIfCancelled()} between chunks; resources that can
+ * block (content streams, HTTP calls) register a listener so cancel() also aborts a read
+ * or write that is already in progress. An optional deadline cancels automatically, from a
+ * timer thread, so it also aborts a read blocked on a slow provider; a token with a parent
+ * is also cancelled when the parent is (e.g. a per-PDF deadline inside a user-cancellable job).
+ */
+public class CancellationToken {
+
+    private static final String TAG = "CancellationToken";
+
+    // One daemon thread fires every deadline; finished tokens remove their task right away
+    private static final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, TAG);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    private final long deadlineMs;
+    private final CancellationToken parent;
+    private final List<Runnable> listeners = new ArrayList<>();
+    private volatile boolean cancelled;
+    private volatile boolean timedOut;
+    private volatile ScheduledFuture<?> deadline;
+
+    public CancellationToken() {
+        this(0, null);
+    }
+
+    private CancellationToken(long deadlineMs, CancellationToken parent) {
+        this.deadlineMs = deadlineMs;
+        this.parent = parent;
+    }
+
+    /**
+     * Token that reports itself cancelled once timeoutMs have passed
+     */
+    public static CancellationToken withTimeout(long timeoutMs) {
+        return withTimeout(timeoutMs, null);
+    }
+
+    /**
+     * Token cancelled after timeoutMs or when parent (may be null) is cancelled
+     * Cancelling this token does not cancel the parent.
+     */
+    public static CancellationToken withTimeout(long timeoutMs, CancellationToken parent) {
+        CancellationToken token = new CancellationToken(System.currentTimeMillis() + timeoutMs, parent);
+        token.deadline = timer.schedule(token::expire, timeoutMs, TimeUnit.MILLISECONDS);
+        return token;
+    }
+
+    /**
+     * Whether the deadline passed (cancelled by its own timeout, not by a parent or caller)
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Stop the deadline timer once the guarded work is done (no-op without a deadline)
+     */
+    public void release() {
+        ScheduledFuture<?> scheduled = deadline;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            deadline = null;
+        }
+    }
+
+    private void expire() {
+        if (!cancelled && (parent == null || !parent.isCancelled())) {
+            timedOut = true;
+        }
+        cancel();
+    }
+
+    /**
+     * Cancel and run every registered listener (once)
+     */
+    public void cancel() {
+        List<Runnable> toRun;
+        synchronized (listeners) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            toRun = new ArrayList<>(listeners);
+            listeners.clear();
+        }
+        for (Runnable listener : toRun) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Cancel listener failed", e);
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        if (!cancelled) {
+            if (deadlineMs > 0 && System.currentTimeMillis() >= deadlineMs) {
+                // Polled right at the deadline, before the timer fired
+                expire();
+            } else if (parent != null && parent.isCancelled()) {
+                cancel();
+            }
+        }
+        return cancelled;
+    }
+
+    /**
+     * @throws CancelledException if cancelled or past the deadline
+     */
+    public void throwIfCancelled() throws CancelledException {
+        if (isCancelled()) {
+            throw new CancelledException();
+        }
+    }
+
+    /**
+     * Run listener on cancel; runs immediately if already cancelled
+     */
+    public void addOnCancelListener(Runnable listener) {
+        if (parent != null) {
+            // Also abort blocking work when the parent is cancelled
+            parent.addOnCancelListener(listener);
+        }
+        synchronized (listeners) {
+            if (!cancelled) {
+                listeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    public void removeOnCancelListener(Runnable listener) {
+        if (parent != null) {
+            parent.removeOnCancelListener(listener);
+        }
+        synchronized (listeners) {
+            listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Thrown from I/O loops when the token was cancelled
+     * An InterruptedIOException, so it passes through streams and OkHttp bodies as-is
+     */
+    public static class CancelledException extends InterruptedIOException {
+        public CancelledException() {
+            super("Cancelled");
+        }
+    }
+}
@@ -33,6 +33,27 @@ public class Constants {
     public static final int JPEG_QUALITY = 85;
     public static final int THUMBNAIL_SIZE = 200;
     
+    /**
+     * Upload encoding budget per processed photo (see AdaptiveImageEncoder)
+     * WebP is tried next to JPEG and used when it keeps more quality in the same budget
+     */
+    public static final long UPLOAD_TARGET_BYTES = 400 * 1024;
+    public static final boolean WEBP_UPLOAD_ENABLED = true;
+    
+    /**
+     * Upload settings
+     * When true, quiz generation sends raw files as multipart parts
+     * (falls back to JSON/Base64 if the server rejects the upload endpoint)
+     * Off until the backend ships api/quiz/generate/upload
+     */
+    public static final boolean MULTIPART_UPLOAD_ENABLED = false;
+    
+    /**
+     * When true, large bodies of @GzipRequest endpoints are sent gzip-encoded
+     * Off until the backend confirms it decompresses request bodies (Content-Encoding: gzip)
+     */
+    public static final boolean GZIP_REQUESTS_ENABLED = false;
+    
     /**
      * PDF processing settings
      */
@@ -61,6 +82,7 @@ public class Constants {
     public static final String PREF_USER_ID = "user_id";
     public static final String PREF_LANGUAGE = "pref_language";
     public static final String PREF_LAST_QUESTION_COUNT = "pref_last_question_count";
+    public static final String PREF_TEXT_PAGE_MODE = "pref_text_page_mode";
     
     /**
      * Language codes
@@ -3,16 +3,29 @@ package com.example.learnquiz_fe.utils;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
 import android.graphics.Matrix;
+import android.graphics.Paint;
 import android.graphics.Rect;
+import android.graphics.RectF;
 import android.media.ExifInterface;
 import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
 import android.util.Base64;
 import android.util.Log;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * Utility class for image processing operations
@@ -23,13 +36,86 @@ public class ImageUtils {
     private static final String TAG = "ImageUtils";
     
     /**
-     * Load bitmap from URI
+     * Load bitmap from URI (full resolution, EXIF orientation applied)
      * 
      * @param context Application context
      * @param uri Image URI
      * @return Loaded bitmap or null if failed
      */
     public static Bitmap loadBitmapFromUri(Context context, Uri uri) throws IOException {
+        DecodedRegion decoded = loadBitmapFromUri(context, uri, null, Integer.MAX_VALUE);
+        return decoded != null ? decoded.bitmap : null;
+    }
+    
+    /**
+     * Load an upright, optionally cropped and downscaled bitmap in one pass
+     * The URI is opened once: EXIF orientation and bounds are read from the same file
+     * descriptor, the decode uses the largest power-of-two inSampleSize that keeps the
+     * crop at least maxWidth wide, and rotation + crop + final scale are applied by a
+     * single Matrix into one output bitmap.
+     * 
+     * @param context Application context
+     * @param uri Image URI
+     * @param crop Crop rect in display (EXIF-rotated) pixel coordinates, or null for the whole image
+     * @param maxWidth Maximum output width (Integer.MAX_VALUE = keep resolution)
+     * @return Decoded bitmap with source dimensions, or null if the image cannot be decoded
+     */
+    public static DecodedRegion loadBitmapFromUri(Context context, Uri uri, Rect crop,
+                                                  int maxWidth) throws IOException {
+        ParcelFileDescriptor pfd = context.getContentResolver().openFileDescriptor(uri, "r");
+        if (pfd == null) {
+            return null;
+        }
+        try {
+            FileDescriptor fd = pfd.getFileDescriptor();
+            int orientation = readExifOrientation(fd);
+            if (!rewind(fd)) {
+                // Pipe-backed provider: cannot seek, fall back to separate streams
+                return loadBitmapFromStreams(context, uri, crop, maxWidth);
+            }
+            
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeFileDescriptor(fd, null, options);
+            if (options.outWidth <= 0 || options.outHeight <= 0 || !rewind(fd)) {
+                return null;
+            }
+            
+            DecodedRegion result = new DecodedRegion();
+            Rect displayRect = prepare(result, crop, orientation, options.outWidth, options.outHeight);
+            
+            options.inJustDecodeBounds = false;
+            options.inSampleSize = calculateSampleForWidth(displayRect.width(), maxWidth);
+            result.sampleSize = options.inSampleSize;
+            
+            Bitmap sampled = decodePooled(fd, options);
+            if (sampled == null) {
+                return null;
+            }
+            
+            // Crop rect in the stored (unrotated) grid, scaled to the sampled bitmap
+            Rect rawRect = toRawRect(displayRect, orientation, options.outWidth, options.outHeight);
+            float ratio = (float) sampled.getWidth() / options.outWidth;
+            Rect subset = new Rect(
+                Math.round(rawRect.left * ratio), Math.round(rawRect.top * ratio),
+                Math.round(rawRect.right * ratio), Math.round(rawRect.bottom * ratio)
+            );
+            if (!subset.intersect(0, 0, sampled.getWidth(), sampled.getHeight())) {
+                subset.set(0, 0, sampled.getWidth(), sampled.getHeight());
+            }
+            
+            result.bitmap = transform(sampled, subset, orientation, maxWidth);
+            return result;
+        } finally {
+            pfd.close();
+        }
+    }
+    
+    /**
+     * Fallback for URIs without a seekable descriptor (two opens, full decode)
+     */
+    private static DecodedRegion loadBitmapFromStreams(Context context, Uri uri, Rect crop,
+                                                       int maxWidth) throws IOException {
         InputStream inputStream = context.getContentResolver().openInputStream(uri);
         if (inputStream == null) {
             return null;
@@ -37,56 +123,312 @@ public class ImageUtils {
         
         Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
         inputStream.close();
+        if (bitmap == null) {
+            return null;
+        }
         
-        // Fix orientation if needed
-        return fixOrientation(context, uri, bitmap);
+        int orientation = readExifOrientation(context, uri);
+        DecodedRegion result = new DecodedRegion();
+        result.sampleSize = 1;
+        Rect displayRect = prepare(result, crop, orientation, bitmap.getWidth(), bitmap.getHeight());
+        Rect subset = toRawRect(displayRect, orientation, bitmap.getWidth(), bitmap.getHeight());
+        result.bitmap = transform(bitmap, subset, orientation, maxWidth);
+        return result;
     }
     
     /**
-     * Fix image orientation based on EXIF data
+     * Decode only the selected region of an image, already subsampled for upload
+     * Never allocates the full-resolution bitmap: BitmapRegionDecoder reads just the
+     * region, with the largest power-of-two inSampleSize whose result is still at
+     * least targetWidth wide. EXIF rotation and the final downscale to targetWidth
+     * are then applied in a single Matrix transform.
+     *
+     * @param context Application context
+     * @param uri Image URI
+     * @param region Region in display (EXIF-rotated) pixel coordinates, or null for the whole image
+     * @param targetWidth Maximum output width
+     * @return Decoded region, or null if the image cannot be decoded
      */
-    private static Bitmap fixOrientation(Context context, Uri uri, Bitmap bitmap) {
+    public static DecodedRegion decodeRegion(Context context, Uri uri, Rect region,
+                                             int targetWidth) throws IOException {
+        ParcelFileDescriptor pfd = context.getContentResolver().openFileDescriptor(uri, "r");
+        if (pfd == null) {
+            return null;
+        }
+
+        int orientation;
+        BitmapRegionDecoder decoder;
         try {
-            InputStream inputStream = context.getContentResolver().openInputStream(uri);
-            if (inputStream == null) return bitmap;
-            
-            ExifInterface exif = new ExifInterface(inputStream);
-            int orientation = exif.getAttributeInt(
-                ExifInterface.TAG_ORIENTATION, 
+            FileDescriptor fd = pfd.getFileDescriptor();
+            orientation = readExifOrientation(fd);
+            if (!rewind(fd)) {
+                return loadBitmapFromStreams(context, uri, region, targetWidth);
+            }
+            decoder = BitmapRegionDecoder.newInstance(fd, false);
+        } finally {
+            pfd.close();
+        }
+        if (decoder == null) {
+            return null;
+        }
+
+        try {
+            int rawWidth = decoder.getWidth();
+            int rawHeight = decoder.getHeight();
+
+            DecodedRegion result = new DecodedRegion();
+            Rect displayRect = prepare(result, region, orientation, rawWidth, rawHeight);
+            Rect rawRect = toRawRect(displayRect, orientation, rawWidth, rawHeight);
+
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inSampleSize = calculateSampleForWidth(displayRect.width(), targetWidth);
+            result.sampleSize = options.inSampleSize;
+
+            // A sampled subset comes out floor(w / n) x floor(h / n): drop the partial last
+            // column/row up front (same output) so the result size is exactly w / n x h / n
+            int sample = options.inSampleSize;
+            if (rawRect.width() >= sample && rawRect.height() >= sample) {
+                rawRect.right -= rawRect.width() % sample;
+                rawRect.bottom -= rawRect.height() % sample;
+            }
+
+            // Exact match only: decodeRegion keeps inBitmap's size and leaves stale pixels
+            // outside the region (or clips it) if the pooled buffer is larger or shaped differently
+            BitmapPool pool = BitmapPool.getInstance();
+            if (rawRect.width() % sample == 0 && rawRect.height() % sample == 0) {
+                pool.setInBitmapExact(options, rawRect.width() / sample, rawRect.height() / sample);
+            }
+            Bitmap decoded;
+            try {
+                decoded = decoder.decodeRegion(rawRect, options);
+            } catch (IllegalArgumentException e) {
+                // Pooled buffer rejected by the decoder, decode into a fresh one
+                pool.clearInBitmap(options);
+                decoded = decoder.decodeRegion(rawRect, options);
+            }
+            if (decoded == null) {
+                return null;
+            }
+
+            Log.d(TAG, "decodeRegion: " + rawRect.width() + "x" + rawRect.height()
+                    + " region, inSampleSize=" + options.inSampleSize
+                    + " -> " + decoded.getWidth() + "x" + decoded.getHeight());
+
+            result.bitmap = transform(decoded, null, orientation, targetWidth);
+            return result;
+        } finally {
+            decoder.recycle();
+        }
+    }
+
+    /**
+     * Upper bound of the bitmap memory {@link #decodeRegion} will need for this image
+     * Reads only the image header. Orientation is not known here, so the smaller side is
+     * treated as the width (smaller sample size = larger, safer estimate).
+     *
+     * @return Estimated peak bytes (decoded region + scaled output), or 0 if unreadable
+     */
+    public static long estimateDecodeBytes(Context context, Uri uri, Rect region, int targetWidth) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream inputStream = context.getContentResolver().openInputStream(uri)) {
+            if (inputStream == null) return 0;
+            BitmapFactory.decodeStream(inputStream, null, options);
+        } catch (IOException e) {
+            return 0;
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) return 0;
+
+        long width = region != null && !region.isEmpty() ? region.width() : options.outWidth;
+        long height = region != null && !region.isEmpty() ? region.height() : options.outHeight;
+        int sample = calculateSampleForWidth((int) Math.min(width, height), targetWidth);
+
+        long decodedBytes = (width / sample) * (height / sample) * 4;
+        long outputBytes = Math.min(decodedBytes, (long) targetWidth * targetWidth * 4);
+        return decodedBytes + outputBytes;
+    }
+
+    /**
+     * Largest power-of-two sample size that keeps width / sample >= targetWidth
+     */
+    public static int calculateSampleForWidth(int width, int targetWidth) {
+        int inSampleSize = 1;
+        while (width / (inSampleSize * 2) >= targetWidth) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
+    /**
+     * Map a rect in display (EXIF-rotated) coordinates back to the raw, stored pixel grid
+     */
+    private static Rect toRawRect(Rect display, int orientation, int rawWidth, int rawHeight) {
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                return new Rect(display.top, rawHeight - display.right,
+                        display.bottom, rawHeight - display.left);
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                return new Rect(rawWidth - display.right, rawHeight - display.bottom,
+                        rawWidth - display.left, rawHeight - display.top);
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                return new Rect(rawWidth - display.bottom, display.left,
+                        rawWidth - display.top, display.right);
+            default:
+                return new Rect(display);
+        }
+    }
+
+    /**
+     * Resolve source size (display orientation) and clamp the requested crop to it
+     * @return Crop rect in display coordinates, the whole image if crop is null/invalid
+     */
+    private static Rect prepare(DecodedRegion result, Rect crop, int orientation,
+                                int rawWidth, int rawHeight) {
+        boolean swapsAxes = rotationDegrees(orientation) % 180 != 0;
+        result.sourceWidth = swapsAxes ? rawHeight : rawWidth;
+        result.sourceHeight = swapsAxes ? rawWidth : rawHeight;
+
+        Rect displayRect = (crop != null && !crop.isEmpty())
+                ? new Rect(crop)
+                : new Rect(0, 0, result.sourceWidth, result.sourceHeight);
+        if (!displayRect.intersect(0, 0, result.sourceWidth, result.sourceHeight)) {
+            Log.w(TAG, "Crop " + crop + " outside image, using full image");
+            displayRect.set(0, 0, result.sourceWidth, result.sourceHeight);
+        }
+        return displayRect;
+    }
+
+    /**
+     * Full decode of a seekable descriptor into a pooled buffer when one fits
+     * (the descriptor must be at offset 0; options carry inSampleSize and outWidth/outHeight)
+     */
+    private static Bitmap decodePooled(FileDescriptor fd, BitmapFactory.Options options) {
+        BitmapPool pool = BitmapPool.getInstance();
+        pool.setInBitmap(options,
+                ceilDiv(options.outWidth, options.inSampleSize),
+                ceilDiv(options.outHeight, options.inSampleSize));
+        try {
+            return BitmapFactory.decodeFileDescriptor(fd, null, options);
+        } catch (IllegalArgumentException e) {
+            // Pooled buffer rejected by the decoder, decode into a fresh one
+            pool.clearInBitmap(options);
+            if (!rewind(fd)) {
+                return null;
+            }
+            return BitmapFactory.decodeFileDescriptor(fd, null, options);
+        }
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    /**
+     * Crop (subset of source), EXIF rotation and downscale to maxWidth in one transform
+     * Draws into one pooled output bitmap; the source goes back to {@link BitmapPool}
+     * when a new bitmap was produced
+     *
+     * @param subset Part of source to keep, or null for all of it
+     */
+    private static Bitmap transform(Bitmap source, Rect subset, int orientation, int maxWidth) {
+        Rect area = subset != null ? subset : new Rect(0, 0, source.getWidth(), source.getHeight());
+
+        Matrix matrix = new Matrix();
+        matrix.setTranslate(-area.left, -area.top);
+        int degrees = rotationDegrees(orientation);
+        if (degrees != 0) {
+            matrix.postRotate(degrees);
+        }
+
+        int displayWidth = (degrees % 180 != 0) ? area.height() : area.width();
+        float scale = displayWidth > maxWidth ? (float) maxWidth / displayWidth : 1f;
+        boolean fullArea = area.width() == source.getWidth() && area.height() == source.getHeight();
+        if (degrees == 0 && scale == 1f && fullArea) {
+            return source;
+        }
+
+        // Move the rotated area back to the origin, then scale
+        RectF bounds = new RectF(area);
+        matrix.mapRect(bounds);
+        matrix.postTranslate(-bounds.left, -bounds.top);
+        matrix.postScale(scale, scale);
+
+        int outWidth = Math.max(1, Math.round(bounds.width() * scale));
+        int outHeight = Math.max(1, Math.round(bounds.height() * scale));
+        Bitmap.Config config = source.getConfig() != null ? source.getConfig() : Bitmap.Config.ARGB_8888;
+        Bitmap transformed = BitmapPool.getInstance().get(outWidth, outHeight, config);
+
+        Canvas canvas = new Canvas(transformed);
+        canvas.drawBitmap(source, matrix, new Paint(Paint.FILTER_BITMAP_FLAG));
+        BitmapPool.getInstance().put(source);
+        return transformed;
+    }
+
+    private static int rotationDegrees(int orientation) {
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                return 90;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                return 180;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                return 270;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Read EXIF orientation from a file descriptor (leaves the offset moved, see {@link #rewind})
+     */
+    private static int readExifOrientation(FileDescriptor fd) {
+        try {
+            return new ExifInterface(fd).getAttributeInt(
+                ExifInterface.TAG_ORIENTATION,
                 ExifInterface.ORIENTATION_NORMAL
             );
-            inputStream.close();
-            
-            Matrix matrix = new Matrix();
-            switch (orientation) {
-                case ExifInterface.ORIENTATION_ROTATE_90:
-                    matrix.postRotate(90);
-                    break;
-                case ExifInterface.ORIENTATION_ROTATE_180:
-                    matrix.postRotate(180);
-                    break;
-                case ExifInterface.ORIENTATION_ROTATE_270:
-                    matrix.postRotate(270);
-                    break;
-                default:
-                    return bitmap;
-            }
-            
-            Bitmap rotatedBitmap = Bitmap.createBitmap(
-                bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true
+        } catch (IOException e) {
+            return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    /**
+     * Seek back to the start of the file
+     * @return false if the descriptor is not seekable (e.g. a pipe)
+     */
+    private static boolean rewind(FileDescriptor fd) {
+        try {
+            Os.lseek(fd, 0, OsConstants.SEEK_SET);
+            return true;
+        } catch (ErrnoException e) {
+            return false;
+        }
+    }
+
+    private static int readExifOrientation(Context context, Uri uri) {
+        try (InputStream inputStream = context.getContentResolver().openInputStream(uri)) {
+            if (inputStream == null) return ExifInterface.ORIENTATION_NORMAL;
+            return new ExifInterface(inputStream).getAttributeInt(
+                ExifInterface.TAG_ORIENTATION,
+                ExifInterface.ORIENTATION_NORMAL
             );
-            
-            if (rotatedBitmap != bitmap) {
-                bitmap.recycle();
-            }
-            
-            return rotatedBitmap;
-            
         } catch (IOException e) {
-            return bitmap;
+            return ExifInterface.ORIENTATION_NORMAL;
         }
     }
-    
+
+    /**
+     * Result of {@link #decodeRegion} and {@link #loadBitmapFromUri(Context, Uri, Rect, int)}
+     */
+    public static class DecodedRegion {
+        /** Bitmap of the requested area, rotated upright and at most maxWidth wide */
+        public Bitmap bitmap;
+        /** Full image size in display orientation */
+        public int sourceWidth;
+        public int sourceHeight;
+        /** inSampleSize used for the decode */
+        public int sampleSize;
+    }
+
     /**
      * Crop bitmap to specified region
      * ✅ FIX: Added detailed logging and validation
@@ -187,7 +529,7 @@ public class ImageUtils {
         int newWidth = maxWidth;
         int newHeight = (int) (height * ratio);
         
-        return Bitmap.createScaledBitmap(source, newWidth, newHeight, true);
+        return scaleIntoPooled(source, newWidth, newHeight);
     }
     
     /**
@@ -211,7 +553,19 @@ public class ImageUtils {
         int newHeight = (int) (height * scale);
         
         // Use high-quality filtering for sharper thumbnails
-        return Bitmap.createScaledBitmap(source, newWidth, newHeight, true);
+        return scaleIntoPooled(source, Math.max(1, newWidth), Math.max(1, newHeight));
+    }
+    
+    /**
+     * Filtered scale of source into a bitmap from {@link BitmapPool} (source is untouched)
+     */
+    private static Bitmap scaleIntoPooled(Bitmap source, int width, int height) {
+        Bitmap.Config config = source.getConfig() != null ? source.getConfig() : Bitmap.Config.ARGB_8888;
+        Bitmap scaled = BitmapPool.getInstance().get(width, height, config);
+        Canvas canvas = new Canvas(scaled);
+        canvas.drawBitmap(source, null, new Rect(0, 0, width, height),
+                new Paint(Paint.FILTER_BITMAP_FLAG));
+        return scaled;
     }
     
     /**
@@ -247,83 +601,56 @@ public class ImageUtils {
     }
     
     /**
-     * Encode entire file (PDF) to base64 string with timeout protection
-     * Maximum processing time: 30 seconds
+     * Compress bitmap to Base64 string
      * 
-     * @param context Application context
-     * @param uri File URI
-     * @param mimeType MIME type of file
-     * @return Base64 encoded string with data URI prefix or null if failed
+     * @param bitmap Bitmap to compress
+     * @param quality JPEG quality (0-100)
+     * @return Base64 encoded string with data URI prefix
      */
-    public static String encodeFileToBase64(Context context, Uri uri, String mimeType) {
-        final long startTime = System.currentTimeMillis();
-        final long TIMEOUT_MS = 30000; // 30 seconds timeout
-        
-        try {
-            InputStream inputStream = context.getContentResolver().openInputStream(uri);
-            if (inputStream == null) {
-                return null;
-            }
-            
-            ByteArrayOutputStream byteBuffer = new ByteArrayOutputStream();
-            byte[] buffer = new byte[8192];
-            int len;
-            long totalBytesRead = 0;
-            
-            while ((len = inputStream.read(buffer)) != -1) {
-                // Check timeout
-                if (System.currentTimeMillis() - startTime > TIMEOUT_MS) {
-                    inputStream.close();
-                    Log.e(TAG, "File encoding timeout after 30 seconds");
-                    return null;
-                }
-                
-                byteBuffer.write(buffer, 0, len);
-                totalBytesRead += len;
-                
-                // Log progress for large files (every 1MB)
-                if (totalBytesRead % (1024 * 1024) == 0) {
-                    Log.d(TAG, "Encoded " + (totalBytesRead / (1024 * 1024)) + " MB...");
-                }
-            }
-            inputStream.close();
-            
-            Log.d(TAG, "File encoding completed: " + (totalBytesRead / 1024) + " KB in " + 
-                  (System.currentTimeMillis() - startTime) + " ms");
-            
-            byte[] fileBytes = byteBuffer.toByteArray();
-            String base64 = Base64.encodeToString(fileBytes, Base64.NO_WRAP);
-            
-            // Return with appropriate data URI prefix
-            String prefix = "data:" + (mimeType != null ? mimeType : "application/pdf") + ";base64,";
-            return prefix + base64;
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error encoding file to base64", e);
+    public static String compressToBase64(Bitmap bitmap, int quality) {
+        byte[] byteArray = compressToJpegBytes(bitmap, quality);
+        if (byteArray == null) {
             return null;
         }
+        
+        String base64 = Base64.encodeToString(byteArray, Base64.NO_WRAP);
+        
+        // Return with data URI prefix
+        return "data:image/jpeg;base64," + base64;
     }
     
     /**
-     * Compress bitmap to Base64 string
+     * Compress bitmap to raw JPEG bytes (no Base64 pass)
      * 
      * @param bitmap Bitmap to compress
      * @param quality JPEG quality (0-100)
-     * @return Base64 encoded string with data URI prefix
+     * @return JPEG bytes or null if bitmap is null
      */
-    public static String compressToBase64(Bitmap bitmap, int quality) {
+    public static byte[] compressToJpegBytes(Bitmap bitmap, int quality) {
         if (bitmap == null) {
             return null;
         }
         
         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
         bitmap.compress(Bitmap.CompressFormat.JPEG, quality, byteArrayOutputStream);
-        byte[] byteArray = byteArrayOutputStream.toByteArray();
-        
-        String base64 = Base64.encodeToString(byteArray, Base64.NO_WRAP);
-        
-        // Return with data URI prefix
-        return "data:image/jpeg;base64," + base64;
+        return byteArrayOutputStream.toByteArray();
+    }
+    
+    /**
+     * Compress bitmap as JPEG straight into a file (no in-memory byte array)
+     * 
+     * @param bitmap Bitmap to compress
+     * @param quality JPEG quality (0-100)
+     * @param file Destination file, overwritten
+     * @return Number of bytes written
+     */
+    public static long compressToJpegFile(Bitmap bitmap, int quality, File file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            if (!bitmap.compress(Bitmap.CompressFormat.JPEG, quality, out)) {
+                throw new IOException("JPEG compression failed");
+            }
+        }
+        return file.length();
     }
     
     /**
@@ -400,19 +727,13 @@ public class ImageUtils {
     }
     
     /**
-     * Get estimated size of Base64 encoded image
+     * Get exact length of the Base64 (NO_WRAP) encoding of an already encoded payload
+     * Use the size reported by {@link AdaptiveImageEncoder} instead of compressing again
      * 
-     * @param bitmap Source bitmap
-     * @return Estimated size in KB
+     * @param encodedBytes Payload size in bytes
+     * @return Base64 length in bytes, without data URI prefix
      */
-    public static int getEstimatedBase64Size(Bitmap bitmap) {
-        if (bitmap == null) return 0;
-        
-        ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.JPEG, 85, stream);
-        int sizeInBytes = stream.toByteArray().length;
-        
-        // Base64 encoding increases size by ~33%
-        return (int) ((sizeInBytes * 1.33) / 1024);
+    public static long getBase64Size(long encodedBytes) {
+        return 4 * ((encodedBytes + 2) / 3);
     }
 }
@@ -0,0 +1,178 @@
+package com.example.learnquiz_fe.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+/**
+ * Preprocessing for photos of text pages (textbooks, handouts) before upload encoding
+ * - GRAYSCALE: luminance with the 1st-99th percentile stretched to full range, so paper
+ *   becomes white and ink dark; removes chroma, which the model does not need for text
+ * - THRESHOLD: adaptive (Bradley) threshold against the local mean, black text on white,
+ *   robust to uneven lighting and shadows across the page
+ *
+ * Both work in place, row by row, on a mutable ARGB_8888 bitmap; THRESHOLD also keeps
+ * one byte of luminance per pixel.
+ */
+public final class TextPageFilter {
+
+    public enum Mode {
+        NONE,
+        GRAYSCALE,
+        THRESHOLD
+    }
+
+    // Ignore this share of darkest/brightest pixels when stretching contrast
+    private static final float CLIP_PERCENT = 1f;
+    // Pixel is ink when darker than the local mean by more than this percentage
+    private static final int THRESHOLD_PERCENT = 15;
+
+    /**
+     * Receives each finished row of ARGB pixels
+     */
+    interface RowWriter {
+        void writeRow(int y, int[] row);
+    }
+
+    private TextPageFilter() {
+    }
+
+    /**
+     * Apply mode to bitmap
+     * @return The same bitmap when mutable, otherwise a mutable copy (source left untouched)
+     */
+    public static Bitmap apply(Bitmap bitmap, Mode mode) {
+        if (mode == null || mode == Mode.NONE) {
+            return bitmap;
+        }
+        Bitmap target = bitmap.isMutable() && bitmap.getConfig() == Bitmap.Config.ARGB_8888
+                ? bitmap : bitmap.copy(Bitmap.Config.ARGB_8888, true);
+        if (mode == Mode.GRAYSCALE) {
+            normalizeGray(target);
+        } else {
+            adaptiveThreshold(target);
+        }
+        return target;
+    }
+
+    private static void normalizeGray(Bitmap bitmap) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        int[] row = new int[width];
+
+        int[] histogram = new int[256];
+        for (int y = 0; y < height; y++) {
+            bitmap.getPixels(row, 0, width, 0, y, width, 1);
+            for (int x = 0; x < width; x++) {
+                histogram[luminance(row[x])]++;
+            }
+        }
+
+        int[] levels = stretchLevels(histogram, (long) width * height);
+        int[] lut = new int[256];
+        for (int g = 0; g < 256; g++) {
+            lut[g] = Color.rgb(levels[g], levels[g], levels[g]);
+        }
+
+        for (int y = 0; y < height; y++) {
+            bitmap.getPixels(row, 0, width, 0, y, width, 1);
+            for (int x = 0; x < width; x++) {
+                row[x] = lut[luminance(row[x])];
+            }
+            bitmap.setPixels(row, 0, width, 0, y, width, 1);
+        }
+    }
+
+    /**
+     * Contrast stretch: output level for each luminance, with CLIP_PERCENT of the
+     * pixels at either end of the histogram mapped to pure black/white
+     */
+    static int[] stretchLevels(int[] histogram, long pixels) {
+        long clip = (long) (pixels * CLIP_PERCENT / 100f);
+        int low = 0;
+        long seen = histogram[0];
+        while (low < 255 && seen <= clip) {
+            seen += histogram[++low];
+        }
+        int high = 255;
+        seen = histogram[255];
+        while (high > low && seen <= clip) {
+            seen += histogram[--high];
+        }
+        int range = Math.max(1, high - low);
+
+        int[] levels = new int[256];
+        for (int g = 0; g < 256; g++) {
+            levels[g] = Math.max(0, Math.min(255, (g - low) * 255 / range));
+        }
+        return levels;
+    }
+
+    private static void adaptiveThreshold(Bitmap bitmap) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        int[] row = new int[width];
+
+        byte[] gray = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            bitmap.getPixels(row, 0, width, 0, y, width, 1);
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                gray[offset + x] = (byte) luminance(row[x]);
+            }
+        }
+
+        threshold(gray, width, height, Math.max(7, width / 32),
+                (y, pixels) -> bitmap.setPixels(pixels, 0, width, 0, y, width, 1));
+    }
+
+    /**
+     * Bradley adaptive threshold of a luminance image with a sliding (2r+1)^2 window
+     * Column sums are updated incrementally per row, so the window mean costs O(1) per pixel.
+     * Rows of Color.BLACK (ink) / Color.WHITE go to out, top to bottom, in one reused array.
+     */
+    static void threshold(byte[] gray, int width, int height, int radius, RowWriter out) {
+        int[] row = new int[width];
+        int[] columnSums = new int[width];
+        for (int y = 0; y <= Math.min(radius, height - 1); y++) {
+            addRow(gray, columnSums, y, width, 1);
+        }
+
+        for (int y = 0; y < height; y++) {
+            if (y > 0) {
+                if (y + radius < height) addRow(gray, columnSums, y + radius, width, 1);
+                if (y - radius - 1 >= 0) addRow(gray, columnSums, y - radius - 1, width, -1);
+            }
+            int rows = Math.min(height - 1, y + radius) - Math.max(0, y - radius) + 1;
+
+            long sum = 0;
+            for (int x = 0; x <= Math.min(radius, width - 1); x++) {
+                sum += columnSums[x];
+            }
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                if (x > 0) {
+                    if (x + radius < width) sum += columnSums[x + radius];
+                    if (x - radius - 1 >= 0) sum -= columnSums[x - radius - 1];
+                }
+                int columns = Math.min(width - 1, x + radius) - Math.max(0, x - radius) + 1;
+                long value = (gray[offset + x] & 0xFF) * (long) rows * columns * 100;
+                row[x] = value < sum * (100 - THRESHOLD_PERCENT) ? Color.BLACK : Color.WHITE;
+            }
+            out.writeRow(y, row);
+        }
+    }
+
+    private static void addRow(byte[] gray, int[] columnSums, int y, int width, int sign) {
+        int offset = y * width;
+        for (int x = 0; x < width; x++) {
+            columnSums[x] += sign * (gray[offset + x] & 0xFF);
+        }
+    }
+
+    /**
+     * Rec. 601 luma in 0-255
+     */
+    static int luminance(int color) {
+        return (((color >> 16) & 0xFF) * 299 + ((color >> 8) & 0xFF) * 587 + (color & 0xFF) * 114) / 1000;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.learnquiz_fe.data.model.quiz;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class CompiledQuizTest {
+
+    @Test
+    public void scoreCountsOnlyCorrectSelections() {
+        CompiledQuiz quiz = compile(
+                question(4, 1),
+                question(3, 0),
+                question(2, 1));
+
+        assertEquals(3, quiz.getQuestionCount());
+        assertEquals(3, quiz.score(new int[]{1, 0, 1}));
+        assertEquals(1, quiz.score(new int[]{1, 2, 0}));
+        assertEquals(0, quiz.score(new int[]{0, 1, 0}));
+    }
+
+    @Test
+    public void timedOutAndUnansweredNeverScore() {
+        CompiledQuiz quiz = compile(question(4, 0), question(4, 0));
+
+        assertFalse(quiz.isCorrectOption(0, CompiledQuiz.TIMED_OUT));
+        assertFalse(quiz.isCorrectOption(0, CompiledQuiz.UNANSWERED));
+        assertEquals(0, quiz.score(new int[]{CompiledQuiz.TIMED_OUT, CompiledQuiz.UNANSWERED}));
+        assertEquals(1, quiz.score(new int[]{0, CompiledQuiz.TIMED_OUT}));
+    }
+
+    @Test
+    public void optionsBeyond64AreNeverCorrect() {
+        CompiledQuiz quiz = compile(question(70, 63, 64, 69));
+
+        assertEquals(70, quiz.getOptionCount(0));
+        assertEquals(63, quiz.getCorrectIndex(0));
+        assertTrue(quiz.isCorrectOption(0, 63));
+        assertFalse(quiz.isCorrectOption(0, 64));
+        assertFalse(quiz.isCorrectOption(0, 69));
+        assertFalse(quiz.isCorrectOption(0, 1000));
+    }
+
+    @Test
+    public void questionWithoutCorrectAnswerNeverScores() {
+        CompiledQuiz quiz = compile(question(3));
+
+        assertEquals(-1, quiz.getCorrectIndex(0));
+        for (int option = 0; option < 3; option++) {
+            assertFalse(quiz.isCorrectOption(0, option));
+        }
+        assertEquals(0, quiz.score(new int[]{0}));
+    }
+
+    @Test
+    public void everyCorrectOptionOfAQuestionScores() {
+        CompiledQuiz quiz = compile(question(4, 1, 3));
+
+        assertEquals(1, quiz.getCorrectIndex(0));
+        assertTrue(quiz.isCorrectOption(0, 1));
+        assertTrue(quiz.isCorrectOption(0, 3));
+        assertFalse(quiz.isCorrectOption(0, 2));
+        assertEquals(1, quiz.score(new int[]{3}));
+    }
+
+    @Test
+    public void scoreIgnoresSelectionsBeyondTheQuiz() {
+        CompiledQuiz quiz = compile(question(2, 0));
+
+        assertEquals(1, quiz.score(new int[]{0, 0, 0}));
+        assertEquals(0, quiz.score(new int[0]));
+    }
+
+    @Test
+    public void emptyOrMissingQuestions() {
+        GenerateQuizResponse response = new GenerateQuizResponse();
+        response.setQuestions(null);
+        CompiledQuiz quiz = new CompiledQuiz(response);
+
+        assertEquals(0, quiz.getQuestionCount());
+        assertEquals(0, quiz.newAttempt().length);
+
+        quiz = compile(new QuizQuestion("Q", null, null));
+        assertEquals(0, quiz.getOptionCount(0));
+        assertEquals(-1, quiz.getCorrectIndex(0));
+    }
+
+    @Test
+    public void newAttemptIsUnanswered() {
+        CompiledQuiz quiz = compile(question(2, 0), question(2, 1), question(2, 0));
+        int[] attempt = quiz.newAttempt();
+
+        assertArrayEquals(new int[]{CompiledQuiz.UNANSWERED, CompiledQuiz.UNANSWERED,
+                CompiledQuiz.UNANSWERED}, attempt);
+        assertEquals(0, quiz.score(attempt));
+    }
+
+    @Test
+    public void timedOutCountsAsAnswered() {
+        assertTrue(CompiledQuiz.isAnswered(0));
+        assertTrue(CompiledQuiz.isAnswered(CompiledQuiz.TIMED_OUT));
+        assertFalse(CompiledQuiz.isAnswered(CompiledQuiz.UNANSWERED));
+    }
+
+    private static CompiledQuiz compile(QuizQuestion... questions) {
+        GenerateQuizResponse response = new GenerateQuizResponse();
+        response.setQuestions(new ArrayList<>(Arrays.asList(questions)));
+        return new CompiledQuiz(response);
+    }
+
+    /**
+     * Question with the given number of options, the listed ones correct
+     */
+    private static QuizQuestion question(int options, int... correct) {
+        List<QuizAnswer> answers = new ArrayList<>();
+        for (int a = 0; a < options; a++) {
+            boolean isTrue = false;
+            for (int c : correct) {
+                isTrue |= c == a;
+            }
+            answers.add(new QuizAnswer("Option " + a, isTrue));
+        }
+        return new QuizQuestion("Question", answers, null);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.learnquiz_fe.data.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import retrofit2.Invocation;
+
+public class RequestPolicyTest {
+
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    @Test
+    public void templatedEndpointIsMatchedThroughTheRetrofitMethod() throws Exception {
+        Request request = new Request.Builder()
+                .url(ApiEndpoints.BASE_URL + "api/quiz/42")
+                .tag(Invocation.class, Invocation.of(
+                        ApiService.class.getMethod("getQuizDetail", String.class),
+                        Collections.singletonList("42")))
+                .build();
+
+        assertEquals(ApiEndpoints.GET_QUIZ_DETAIL, CallTimingListener.endpointOf(request));
+        assertSame(RequestPolicy.READ, RequestPolicy.forRequest(request));
+    }
+
+    @Test
+    public void generationGetsTheLongPolicy() {
+        Request request = post(ApiEndpoints.GENERATE_QUIZ);
+
+        assertSame(RequestPolicy.GENERATE, RequestPolicy.forRequest(request));
+        assertTrue(RequestPolicy.GENERATE.deadlineSeconds > RequestPolicy.WRITE.deadlineSeconds);
+    }
+
+    @Test
+    public void paymentIsMatched() {
+        assertSame(RequestPolicy.PAYMENT, RequestPolicy.forRequest(post(ApiEndpoints.CREATE_PAYMENT_INTENT)));
+    }
+
+    @Test
+    public void unlistedGetIsARead() {
+        Request request = new Request.Builder()
+                .url(ApiEndpoints.BASE_URL + "api/unknown")
+                .build();
+
+        assertSame(RequestPolicy.READ, RequestPolicy.forRequest(request));
+    }
+
+    @Test
+    public void unlistedPostIsAWrite() {
+        assertSame(RequestPolicy.WRITE, RequestPolicy.forRequest(post(ApiEndpoints.LOGIN)));
+    }
+
+    @Test
+    public void methodIsPartOfTheKey() {
+        // Generation and payment are POST-only; a GET on the same path is just a read
+        Request request = new Request.Builder()
+                .url(ApiEndpoints.BASE_URL + ApiEndpoints.GENERATE_QUIZ)
+                .build();
+
+        assertSame(RequestPolicy.READ, RequestPolicy.forRequest(request));
+    }
+
+    @Test
+    public void onlyReadsAreRetried() {
+        assertTrue(RequestPolicy.READ.maxRetries > 0);
+        assertEquals(0, RequestPolicy.WRITE.maxRetries);
+        assertEquals(0, RequestPolicy.GENERATE.maxRetries);
+        assertEquals(0, RequestPolicy.PAYMENT.maxRetries);
+    }
+
+    private static Request post(String endpoint) {
+        return new Request.Builder()
+                .url(ApiEndpoints.BASE_URL + endpoint)
+                .post(RequestBody.create("{}", JSON))
+                .build();
+    }
+}
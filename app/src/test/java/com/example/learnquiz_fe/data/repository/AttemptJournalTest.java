@@ -0,0 +1,166 @@
+package com.example.learnquiz_fe.data.repository;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.example.learnquiz_fe.data.model.quiz.CompiledQuiz;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+public class AttemptJournalTest {
+
+    private static final int RECORD_SIZE = 13;
+
+    private File dir;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("attempt_journal").toFile();
+        file = new File(dir, "quiz.journal");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        dir.delete();
+    }
+
+    @Test
+    public void replayRebuildsTheAttempt() throws Exception {
+        AttemptJournal journal = journal();
+        journal.start(3);
+        journal.recordAnswer(0, 2);
+        journal.recordPosition(1);
+        journal.recordAnswer(1, CompiledQuiz.TIMED_OUT);
+        journal.recordTimer(1, 5000);
+        journal.flush();
+        AttemptJournal.awaitWrites();
+
+        AttemptJournal resumed = journal();
+        AttemptJournal.Snapshot snapshot = resumed.restore(3);
+
+        assertNotNull(snapshot);
+        assertArrayEquals(new int[]{2, CompiledQuiz.TIMED_OUT, CompiledQuiz.UNANSWERED}, snapshot.selections);
+        assertEquals(1, snapshot.currentIndex);
+        assertEquals(5000, snapshot.remainingMs);
+        assertEquals(2, snapshot.getAnsweredCount());
+        assertEquals(journal.getAttemptId(), resumed.getAttemptId());
+    }
+
+    @Test
+    public void laterAnswerReplacesEarlierOne() throws Exception {
+        AttemptJournal journal = journal();
+        journal.start(2);
+        journal.recordAnswer(0, 1);
+        journal.recordAnswer(0, 3);
+        journal.flush();
+        AttemptJournal.awaitWrites();
+
+        assertEquals(3, journal().restore(2).selections[0]);
+    }
+
+    @Test
+    public void timerOnlyAppliesToTheCurrentQuestion() throws Exception {
+        AttemptJournal journal = journal();
+        journal.start(3);
+        journal.recordTimer(0, 3000);
+        journal.recordPosition(1);
+        journal.recordTimer(2, 7000);
+        journal.flush();
+        AttemptJournal.awaitWrites();
+
+        AttemptJournal.Snapshot snapshot = journal().restore(3);
+        assertEquals(1, snapshot.currentIndex);
+        assertEquals(-1, snapshot.remainingMs);
+    }
+
+    @Test
+    public void fullBatchIsWrittenWithoutExplicitFlush() throws Exception {
+        AttemptJournal journal = journal();
+        journal.start(8);
+        for (int q = 0; q < 8; q++) {
+            journal.recordAnswer(q, q % 4);
+        }
+        AttemptJournal.awaitWrites();
+
+        assertEquals(8, journal().restore(8).getAnsweredCount());
+    }
+
+    @Test
+    public void noJournalOrOtherQuizSizeRestoresNothing() throws Exception {
+        assertNull(journal().restore(3));
+
+        AttemptJournal journal = journal();
+        journal.start(3);
+        journal.flush();
+        AttemptJournal.awaitWrites();
+
+        assertNull(journal().restore(4));
+    }
+
+    @Test
+    public void startReplacesThePreviousAttempt() throws Exception {
+        AttemptJournal journal = journal();
+        journal.start(2);
+        journal.recordAnswer(0, 1);
+        journal.flush();
+        journal.start(2);
+        journal.flush();
+        AttemptJournal.awaitWrites();
+
+        assertEquals(0, journal().restore(2).getAnsweredCount());
+    }
+
+    @Test
+    public void tornRecordIsIgnoredAndCutOff() throws Exception {
+        AttemptJournal journal = journal();
+        journal.start(3);
+        journal.recordAnswer(0, 1);
+        journal.flush();
+        AttemptJournal.awaitWrites();
+        // Process killed in the middle of the next record
+        try (OutputStream out = new FileOutputStream(file, true)) {
+            out.write(new byte[]{3, 0, 0, 0, 1});
+        }
+
+        AttemptJournal resumed = journal();
+        AttemptJournal.Snapshot snapshot = resumed.restore(3);
+        assertArrayEquals(new int[]{1, CompiledQuiz.UNANSWERED, CompiledQuiz.UNANSWERED}, snapshot.selections);
+        AttemptJournal.awaitWrites();
+        assertEquals(0, file.length() % RECORD_SIZE);
+
+        // Records appended after the resume are read back intact
+        resumed.recordAnswer(2, 0);
+        resumed.flush();
+        AttemptJournal.awaitWrites();
+        assertArrayEquals(new int[]{1, CompiledQuiz.UNANSWERED, 0}, journal().restore(3).selections);
+    }
+
+    @Test
+    public void discardDeletesTheJournal() throws Exception {
+        AttemptJournal journal = journal();
+        journal.start(2);
+        journal.recordAnswer(0, 1);
+        journal.discard();
+        AttemptJournal.awaitWrites();
+
+        assertFalse(file.exists());
+        assertNull(journal().restore(2));
+    }
+
+    private AttemptJournal journal() {
+        return new AttemptJournal("quiz", file);
+    }
+}
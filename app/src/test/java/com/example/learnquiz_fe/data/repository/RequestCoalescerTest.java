@@ -0,0 +1,187 @@
+package com.example.learnquiz_fe.data.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.Request;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+public class RequestCoalescerTest {
+
+    private final RequestCoalescer<String> coalescer = new RequestCoalescer<>();
+    private final List<QuizRepository.GenericCallback<String>> sinks = new ArrayList<>();
+    private final List<FakeCall> calls = new ArrayList<>();
+
+    @Test
+    public void concurrentCallersShareOneCall() {
+        RecordingCallback first = new RecordingCallback();
+        RecordingCallback second = new RecordingCallback();
+
+        coalescer.execute("quiz:1", first, this::start);
+        coalescer.execute("quiz:1", second, this::start);
+        assertEquals(1, calls.size());
+
+        sinks.get(0).onSuccess("detail");
+        assertEquals("detail", first.result);
+        assertSame(first.result, second.result);
+    }
+
+    @Test
+    public void differentKeysDoNotShare() {
+        coalescer.execute("quiz:1", new RecordingCallback(), this::start);
+        coalescer.execute("quiz:2", new RecordingCallback(), this::start);
+
+        assertEquals(2, calls.size());
+    }
+
+    @Test
+    public void errorsReachEveryCaller() {
+        RecordingCallback first = new RecordingCallback();
+        RecordingCallback second = new RecordingCallback();
+
+        coalescer.execute("quiz:1", first, this::start);
+        coalescer.execute("quiz:1", second, this::start);
+        sinks.get(0).onError("Not found", 404);
+
+        assertEquals(404, first.errorCode);
+        assertEquals(404, second.errorCode);
+    }
+
+    @Test
+    public void cancellingOneCallerKeepsTheCallForTheOthers() {
+        RecordingCallback first = new RecordingCallback();
+        RecordingCallback second = new RecordingCallback();
+
+        RequestCoalescer.Handle handle = coalescer.execute("quiz:1", first, this::start);
+        coalescer.execute("quiz:1", second, this::start);
+        handle.cancel();
+        assertFalse(calls.get(0).isCanceled());
+
+        sinks.get(0).onSuccess("detail");
+        assertNull(first.result);
+        assertEquals("detail", second.result);
+    }
+
+    @Test
+    public void cancellingEveryCallerCancelsTheCall() {
+        RequestCoalescer.Handle first = coalescer.execute("quiz:1", new RecordingCallback(), this::start);
+        RequestCoalescer.Handle second = coalescer.execute("quiz:1", new RecordingCallback(), this::start);
+
+        first.cancel();
+        second.cancel();
+        assertTrue(calls.get(0).isCanceled());
+
+        // The cancelled flight is gone: the next caller starts a new call
+        coalescer.execute("quiz:1", new RecordingCallback(), this::start);
+        assertEquals(2, calls.size());
+    }
+
+    @Test
+    public void cancelledFlightCannotReachANewCaller() {
+        coalescer.execute("quiz:1", new RecordingCallback(), this::start).cancel();
+        RecordingCallback late = new RecordingCallback();
+        coalescer.execute("quiz:1", late, this::start);
+
+        // The first call completes after all: only its own (cancelled) callers were waiting
+        sinks.get(0).onSuccess("stale");
+        assertNull(late.result);
+
+        sinks.get(1).onSuccess("fresh");
+        assertEquals("fresh", late.result);
+    }
+
+    @Test
+    public void completedFlightIsNotReused() {
+        RecordingCallback first = new RecordingCallback();
+        coalescer.execute("quiz:1", first, this::start);
+        sinks.get(0).onSuccess("v1");
+
+        RecordingCallback second = new RecordingCallback();
+        coalescer.execute("quiz:1", second, this::start);
+        assertEquals(2, calls.size());
+        sinks.get(1).onSuccess("v2");
+
+        assertEquals("v1", first.result);
+        assertEquals("v2", second.result);
+    }
+
+    private Call<?> start(QuizRepository.GenericCallback<String> sink) {
+        sinks.add(sink);
+        FakeCall call = new FakeCall();
+        calls.add(call);
+        return call;
+    }
+
+    private static class RecordingCallback implements QuizRepository.GenericCallback<String> {
+        String result;
+        int errorCode;
+
+        @Override
+        public void onSuccess(String response) {
+            result = response;
+        }
+
+        @Override
+        public void onError(String message, int errorCode) {
+            this.errorCode = errorCode;
+        }
+    }
+
+    /**
+     * Call that only records cancel(); the test completes the flight through its sink
+     */
+    private static class FakeCall implements Call<Object> {
+        private boolean canceled;
+
+        @Override
+        public Response<Object> execute() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void enqueue(Callback<Object> callback) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return true;
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public Call<Object> clone() {
+            return new FakeCall();
+        }
+
+        @Override
+        public Request request() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return Timeout.NONE;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.learnquiz_fe.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Color;
+
+import org.junit.Test;
+
+public class TextPageFilterTest {
+
+    private static final int RADIUS = 7;
+
+    @Test
+    public void luminanceUsesRec601Weights() {
+        assertEquals(255, TextPageFilter.luminance(0xFFFFFFFF));
+        assertEquals(0, TextPageFilter.luminance(0xFF000000));
+        assertEquals(76, TextPageFilter.luminance(0xFFFF0000));
+        assertEquals(149, TextPageFilter.luminance(0xFF00FF00));
+        assertEquals(29, TextPageFilter.luminance(0xFF0000FF));
+        // Alpha is ignored
+        assertEquals(255, TextPageFilter.luminance(0x00FFFFFF));
+    }
+
+    @Test
+    public void stretchMapsInkAndPaperToFullRange() {
+        int[] histogram = new int[256];
+        histogram[50] = 1000;
+        histogram[200] = 1000;
+
+        int[] levels = TextPageFilter.stretchLevels(histogram, 2000);
+
+        assertEquals(0, levels[0]);
+        assertEquals(0, levels[50]);
+        assertEquals(127, levels[125]);
+        assertEquals(255, levels[200]);
+        assertEquals(255, levels[255]);
+        for (int g = 1; g < 256; g++) {
+            assertTrue(levels[g] >= levels[g - 1]);
+        }
+    }
+
+    @Test
+    public void stretchClipsRareOutliers() {
+        int[] histogram = new int[256];
+        histogram[0] = 5;
+        histogram[50] = 1000;
+        histogram[200] = 1000;
+        histogram[255] = 5;
+
+        int[] levels = TextPageFilter.stretchLevels(histogram, 2010);
+
+        // Under 1% of the pixels: they do not widen the range
+        assertEquals(0, levels[50]);
+        assertEquals(255, levels[200]);
+    }
+
+    @Test
+    public void stretchOfAFlatImageDoesNotDivideByZero() {
+        int[] histogram = new int[256];
+        histogram[128] = 100;
+
+        int[] levels = TextPageFilter.stretchLevels(histogram, 100);
+
+        assertEquals(0, levels[128]);
+        assertEquals(255, levels[129]);
+    }
+
+    @Test
+    public void uniformPageHasNoInk() {
+        int[][] result = threshold(page(40, 30, 180), 40);
+
+        for (int[] row : result) {
+            for (int pixel : row) {
+                assertEquals(Color.WHITE, pixel);
+            }
+        }
+    }
+
+    @Test
+    public void darkStrokeIsInkAndPaperStaysWhite() {
+        byte[] gray = page(40, 30, 200);
+        fill(gray, 40, 10, 20, 15, 17, 60);
+
+        int[][] result = threshold(gray, 40);
+
+        assertEquals(Color.BLACK, result[15][12]);
+        assertEquals(Color.BLACK, result[16][19]);
+        assertEquals(Color.WHITE, result[14][12]);
+        assertEquals(Color.WHITE, result[5][30]);
+    }
+
+    @Test
+    public void unevenLightingIsJudgedAgainstTheLocalMean() {
+        int width = 80;
+        int height = 30;
+        // Bright left half, shadowed right half, a stroke in each
+        byte[] gray = page(width, height, 220);
+        fill(gray, width, 40, 80, 0, 30, 90);
+        fill(gray, width, 10, 20, 14, 16, 140);
+        fill(gray, width, 60, 70, 14, 16, 40);
+
+        int[][] result = threshold(gray, width);
+
+        assertEquals(Color.BLACK, result[15][15]);
+        assertEquals(Color.BLACK, result[15][65]);
+        // Away from the edge between the halves, both papers stay white
+        assertEquals(Color.WHITE, result[5][15]);
+        assertEquals(Color.WHITE, result[5][65]);
+    }
+
+    private static int[][] threshold(byte[] gray, int width) {
+        int height = gray.length / width;
+        int[][] result = new int[height][];
+        TextPageFilter.threshold(gray, width, height, RADIUS, (y, row) -> result[y] = row.clone());
+        return result;
+    }
+
+    private static byte[] page(int width, int height, int level) {
+        byte[] gray = new byte[width * height];
+        fill(gray, width, 0, width, 0, height, level);
+        return gray;
+    }
+
+    /**
+     * Set the rectangle [x0, x1) x [y0, y1) to level
+     */
+    private static void fill(byte[] gray, int width, int x0, int x1, int y0, int y1, int level) {
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                gray[y * width + x] = (byte) level;
+            }
+        }
+    }
+}